@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.providers.file.FileWagon;
+import org.apache.maven.wagon.repository.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Upload of a generated site to a local file repository, with the wagon calls made by {@link AbstractDeployMojo}:
+ * connect, put the site directory, disconnect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileWagonDeployBenchmark {
+    @Param({"1000", "10000"})
+    private int files;
+
+    @Param({"8192"})
+    private int fileSize;
+
+    private File workDirectory;
+
+    private File siteDirectory;
+
+    private Repository repository;
+
+    @Setup
+    public void setUp() throws Exception {
+        workDirectory = Files.createTempDirectory("file-wagon-deploy-benchmark").toFile();
+        siteDirectory = new File(workDirectory, "site");
+
+        StringBuilder content = new StringBuilder(fileSize);
+        while (content.length() < fileSize) {
+            content.append("<p>Lorem ipsum dolor sit amet</p>\n");
+        }
+        byte[] bytes = content.substring(0, fileSize).getBytes(UTF_8);
+        for (int i = 0; i < files; i++) {
+            // like a site: a few pages per directory
+            File directory = new File(siteDirectory, "dir-" + (i / 50));
+            Files.createDirectories(directory.toPath());
+            Files.write(new File(directory, "page-" + i + ".html").toPath(), bytes);
+        }
+
+        repository = new Repository("benchmark", new File(workDirectory, "repository").toURI().toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDirectory);
+    }
+
+    @Benchmark
+    public void putDirectory() throws Exception {
+        Wagon wagon = new FileWagon();
+        wagon.connect(repository);
+        try {
+            wagon.putDirectory(siteDirectory, "./");
+        } finally {
+            wagon.disconnect();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.doxia.site.Body;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.PlexusContainerException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Shared setup of the benchmarks: a container with the Doxia components, a minimal skin and synthetic documents.
+ */
+final class BenchmarkSupport {
+    private static final String TEMPLATE = "<html><head><title>$title</title>$!headContent</head>\n"
+            + "<body>#foreach($menu in $site.menus)<h2>$menu.name</h2>#end\n$bodyContent</body></html>\n";
+
+    private BenchmarkSupport() {
+        // utility class
+    }
+
+    static PlexusContainer newContainer() throws PlexusContainerException {
+        ContainerConfiguration configuration = new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true);
+        return new DefaultPlexusContainer(configuration);
+    }
+
+    static File newTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    static void delete(File directory) {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    /**
+     * Create a site rendering context with a minimal skin, whose template loops over the menus like real skins do.
+     * The site model is considered modified in the future, so that documents are always rendered again.
+     */
+    static SiteRenderingContext newContext(SiteRenderer siteRenderer, SiteModel siteModel, File workDirectory)
+            throws IOException, RendererException {
+        File skinFile = new File(workDirectory, "skin.jar");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(skinFile.toPath()))) {
+            jar.putNextEntry(new JarEntry("META-INF/maven/site.vm"));
+            jar.write(TEMPLATE.getBytes(UTF_8));
+            jar.closeEntry();
+        }
+        Artifact skin = new DefaultArtifact(
+                "org.apache.maven.plugins.site.benchmark",
+                "benchmark-skin",
+                "1.0",
+                Artifact.SCOPE_COMPILE,
+                "jar",
+                null,
+                new DefaultArtifactHandler("jar"));
+        skin.setFile(skinFile);
+
+        if (siteModel.getBody() == null) {
+            siteModel.setBody(new Body());
+        }
+        siteModel.setLastModified(Long.MAX_VALUE);
+        SiteRenderingContext context = siteRenderer.createContextForSkin(
+                skin, Collections.emptyMap(), siteModel, "Benchmark", SiteTool.DEFAULT_LOCALE);
+        context.setInputEncoding("UTF-8");
+        context.setOutputEncoding("UTF-8");
+        context.setPublishDate(new Date(0));
+        context.setRootDirectory(workDirectory);
+        context.addSiteLocales(Collections.singletonList(Locale.ROOT));
+        return context;
+    }
+
+    /**
+     * Write synthetic source documents.
+     *
+     * @param siteDirectory the site directory, containing one directory per Doxia format
+     * @param format <code>markdown</code>, <code>apt</code>, <code>xdoc</code> or <code>fml</code>
+     * @param pages the count of documents
+     */
+    static void writeDocuments(File siteDirectory, String format, int pages) throws IOException {
+        File directory = new File(siteDirectory, format);
+        Files.createDirectories(directory.toPath());
+        for (int i = 0; i < pages; i++) {
+            String content;
+            String extension;
+            switch (format) {
+                case "markdown":
+                    extension = "md";
+                    content = "# Page " + i + "\n\nSome *emphasized* text and a [link](page-" + (i + 1) + ".html).\n\n"
+                            + "- first item\n- second item\n\n```\nint page = " + i + ";\n```\n";
+                    break;
+                case "apt":
+                    extension = "apt";
+                    content = " -----\n Page " + i + "\n -----\n\nPage " + i + "\n\n  Some <emphasized> text and a "
+                            + "{{{./page-" + (i + 1) + ".html}link}}.\n\n  * first item\n\n  * second item\n\n  []\n\n"
+                            + "+-----+\nint page = " + i + ";\n+-----+\n";
+                    break;
+                case "xdoc":
+                    extension = "xml";
+                    content = "<document><properties><title>Page " + i + "</title></properties><body>"
+                            + "<section name=\"Page " + i + "\"><p>Some <em>emphasized</em> text and a "
+                            + "<a href=\"page-" + (i + 1) + ".html\">link</a>.</p>"
+                            + "<ul><li>first item</li><li>second item</li></ul>"
+                            + "<source>int page = " + i + ";</source></section></body></document>\n";
+                    break;
+                case "fml":
+                    extension = "fml";
+                    content = "<faqs title=\"Page " + i + "\"><part id=\"general\"><title>General</title>"
+                            + "<faq id=\"first\"><question>First question?</question><answer><p>Some <em>emphasized"
+                            + "</em> answer.</p></answer></faq><faq id=\"second\"><question>Second question?"
+                            + "</question><answer><p>Another answer.</p></answer></faq></part></faqs>\n";
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported format " + format);
+            }
+            Files.write(new File(directory, "page-" + i + '.' + extension).toPath(), content.getBytes(UTF_8));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of a synthetic corpus of Doxia documents, like the site goal does for the documents of
+ * <code>src/site</code>: every document is parsed and merged into the skin template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DoxiaRenderingBenchmark {
+    @Param({"1000", "10000"})
+    private int pages;
+
+    @Param({"markdown", "apt", "xdoc", "fml"})
+    private String format;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private PlexusContainer container;
+
+    private File workDirectory;
+
+    private File outputDirectory;
+
+    private SiteRenderer siteRenderer;
+
+    private SiteRenderingContext context;
+
+    private Collection<DocumentRenderer> documents;
+
+    @Setup
+    public void setUp() throws Exception {
+        container = BenchmarkSupport.newContainer();
+        siteRenderer = container.lookup(SiteRenderer.class);
+
+        workDirectory = BenchmarkSupport.newTempDirectory("doxia-rendering-benchmark");
+        File siteDirectory = new File(workDirectory, "src/site");
+        outputDirectory = new File(workDirectory, "target/site");
+        BenchmarkSupport.writeDocuments(siteDirectory, format, pages);
+
+        context = BenchmarkSupport.newContext(siteRenderer, new SiteModel(), workDirectory);
+        context.addSiteDirectory(new SiteDirectory(siteDirectory, true));
+        documents = siteRenderer.locateDocumentFiles(context).values();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.dispose();
+        BenchmarkSupport.delete(workDirectory);
+    }
+
+    @Benchmark
+    public void render() throws Exception {
+        new ParallelDocumentRenderer(siteRenderer, threads).render(documents, context, outputDirectory);
+    }
+}
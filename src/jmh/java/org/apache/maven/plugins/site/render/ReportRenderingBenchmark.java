@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullWriter;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.reporting.MavenMultiPageReport;
+import org.apache.maven.reporting.MavenReportException;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generation of a multi-page report by {@link ReportDocumentRenderer}: the fake report writes a main page and
+ * sub-pages through the sink factory, each one merged into the skin template and written to disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportRenderingBenchmark {
+    @Param({"100", "1000"})
+    private int pages;
+
+    @Param({"20"})
+    private int rows;
+
+    private PlexusContainer container;
+
+    private File workDirectory;
+
+    private SiteRenderer siteRenderer;
+
+    private SiteRenderingContext context;
+
+    private ReportDocumentRenderer renderer;
+
+    @Setup
+    public void setUp() throws Exception {
+        container = BenchmarkSupport.newContainer();
+        siteRenderer = container.lookup(SiteRenderer.class);
+        workDirectory = BenchmarkSupport.newTempDirectory("report-rendering-benchmark");
+        context = BenchmarkSupport.newContext(siteRenderer, new SiteModel(), workDirectory);
+
+        FakeMultiPageReport report = new FakeMultiPageReport(pages, rows);
+        report.setReportOutputDirectory(new File(workDirectory, "target/site"));
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("org.apache.maven.plugins.site.benchmark");
+        plugin.setArtifactId("benchmark-maven-plugin");
+        plugin.setVersion("1.0");
+        MavenReportExecution exec = new MavenReportExecution("report", plugin, report, null, true);
+        renderer = new ReportDocumentRenderer(
+                exec,
+                new DocumentRenderingContext(new File(workDirectory, "src/site"), "fake", "benchmark"),
+                new SystemStreamLog() {
+                    @Override
+                    public void info(CharSequence content) {
+                        // keep the benchmark output readable
+                    }
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.dispose();
+        BenchmarkSupport.delete(workDirectory);
+    }
+
+    @Benchmark
+    public void render() throws Exception {
+        renderer.renderDocument(NullWriter.INSTANCE, siteRenderer, context);
+    }
+
+    /**
+     * Report writing a table in its main page and in every sub-page.
+     */
+    static class FakeMultiPageReport implements MavenMultiPageReport {
+        private final int pages;
+
+        private final int rows;
+
+        private File reportOutputDirectory;
+
+        FakeMultiPageReport(int pages, int rows) {
+            this.pages = pages;
+            this.rows = rows;
+        }
+
+        @Override
+        public void generate(Sink sink, SinkFactory sinkFactory, Locale locale) throws MavenReportException {
+            writePage(sink, "Fake report");
+            for (int i = 0; i < pages; i++) {
+                try {
+                    writePage(
+                            sinkFactory.createSink(new File(reportOutputDirectory, "fake"), "page-" + i + ".html"),
+                            "Page " + i);
+                } catch (IOException e) {
+                    throw new MavenReportException("Failed to create sink for page " + i, e);
+                }
+            }
+        }
+
+        private void writePage(Sink sink, String title) {
+            sink.head();
+            sink.title();
+            sink.text(title);
+            sink.title_();
+            sink.head_();
+            sink.body();
+            sink.section1();
+            sink.sectionTitle1();
+            sink.text(title);
+            sink.sectionTitle1_();
+            sink.table();
+            sink.tableRows();
+            for (int i = 0; i < rows; i++) {
+                sink.tableRow();
+                sink.tableCell();
+                sink.text("Cell " + i);
+                sink.tableCell_();
+                sink.tableCell();
+                sink.link("page-" + i + ".html");
+                sink.text("Link " + i);
+                sink.link_();
+                sink.tableCell_();
+                sink.tableRow_();
+            }
+            sink.tableRows_();
+            sink.table_();
+            sink.section1_();
+            sink.body_();
+            sink.flush();
+            sink.close();
+        }
+
+        @Override
+        public void generate(Sink sink, Locale locale) throws MavenReportException {
+            writePage(sink, "Fake report");
+        }
+
+        @Override
+        public String getOutputName() {
+            return "fake";
+        }
+
+        @Override
+        public String getCategoryName() {
+            return CATEGORY_PROJECT_REPORTS;
+        }
+
+        @Override
+        public String getName(Locale locale) {
+            return "Fake report";
+        }
+
+        @Override
+        public String getDescription(Locale locale) {
+            return "Fake multi-page report";
+        }
+
+        @Override
+        public void setReportOutputDirectory(File reportOutputDirectory) {
+            this.reportOutputDirectory = reportOutputDirectory;
+        }
+
+        @Override
+        public File getReportOutputDirectory() {
+            return reportOutputDirectory;
+        }
+
+        @Override
+        public boolean isExternalReport() {
+            return false;
+        }
+
+        @Override
+        public boolean canGenerateReport() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullWriter;
+import org.apache.maven.doxia.site.Body;
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.i18n.I18N;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of the sitemap by {@link SitemapDocumentRenderer} for deep menus: every menu has <code>breadth</code>
+ * items on each of its <code>depth</code> levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SitemapRenderingBenchmark {
+    @Param({"2", "4", "6"})
+    private int depth;
+
+    @Param({"4"})
+    private int breadth;
+
+    @Param({"5"})
+    private int menus;
+
+    private PlexusContainer container;
+
+    private File workDirectory;
+
+    private SiteRenderer siteRenderer;
+
+    private SiteRenderingContext context;
+
+    private SitemapDocumentRenderer renderer;
+
+    @Setup
+    public void setUp() throws Exception {
+        container = BenchmarkSupport.newContainer();
+        siteRenderer = container.lookup(SiteRenderer.class);
+        workDirectory = BenchmarkSupport.newTempDirectory("sitemap-rendering-benchmark");
+
+        SiteModel siteModel = new SiteModel();
+        siteModel.setBody(new Body());
+        for (int i = 0; i < menus; i++) {
+            Menu menu = new Menu();
+            menu.setName("Menu " + i);
+            addItems(menu.getItems(), "menu-" + i, depth);
+            siteModel.getBody().addMenu(menu);
+        }
+        context = BenchmarkSupport.newContext(siteRenderer, siteModel, workDirectory);
+
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId("maven-site-plugin");
+        plugin.setVersion("benchmark");
+        renderer = new SitemapDocumentRenderer(
+                new MojoExecution(plugin, "site", "benchmark"),
+                new DocumentRenderingContext(new File(workDirectory, "src/site"), "sitemap", "benchmark"),
+                "Sitemap",
+                siteModel,
+                container.lookup(I18N.class),
+                new SystemStreamLog() {
+                    @Override
+                    public void info(CharSequence content) {
+                        // keep the benchmark output readable
+                    }
+                });
+    }
+
+    private void addItems(List<MenuItem> items, String path, int levels) {
+        if (levels == 0) {
+            return;
+        }
+        for (int i = 0; i < breadth; i++) {
+            MenuItem item = new MenuItem();
+            item.setName("Item " + path + '-' + i);
+            item.setHref(path + '-' + i + ".html");
+            addItems(item.getItems(), path + '-' + i, levels - 1);
+            items.add(item);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.dispose();
+        BenchmarkSupport.delete(workDirectory);
+    }
+
+    @Benchmark
+    public void render() throws Exception {
+        renderer.renderDocument(NullWriter.INSTANCE, siteRenderer, context);
+    }
+}
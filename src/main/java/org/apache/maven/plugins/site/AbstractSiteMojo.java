@@ -20,12 +20,15 @@ package org.apache.maven.plugins.site;
 
 import javax.inject.Inject;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 
 import org.apache.maven.doxia.tools.SiteTool;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.i18n.I18N;
 
@@ -52,6 +55,24 @@ public abstract class AbstractSiteMojo extends AbstractMojo {
     @Parameter(property = "maven.site.skip", defaultValue = "false")
     protected boolean skip;
 
+    /**
+     * Whether to record the wall time, CPU time and allocated bytes of every rendered document, resources copy and
+     * uploaded file. The measures are written as JSON in the profile file of the goal, and the slowest steps are
+     * logged at the end of the goal.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.profile", defaultValue = "false")
+    protected boolean profile;
+
+    /**
+     * Count of the slowest steps logged when {@link #profile} is enabled.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.profile.summarySize", defaultValue = "10")
+    private int profileSummarySize;
+
     /**
      * SiteTool.
      */
@@ -73,4 +94,33 @@ public abstract class AbstractSiteMojo extends AbstractMojo {
     protected List<Locale> getLocales() {
         return siteTool.getSiteLocales(locales);
     }
+
+    /**
+     * @return a new profiler if {@link #profile} is enabled, otherwise <code>null</code>
+     * @since 3.22.1
+     */
+    protected BuildProfiler newProfiler() {
+        return profile ? new BuildProfiler() : null;
+    }
+
+    /**
+     * Write the profile of the goal and log its slowest steps.
+     *
+     * @param profiler the profiler, or <code>null</code> if profiling is not enabled
+     * @param profileFile the file to write
+     * @param goal the goal that was profiled
+     * @since 3.22.1
+     */
+    protected void writeProfile(BuildProfiler profiler, File profileFile, String goal) {
+        if (profiler == null) {
+            return;
+        }
+        profiler.logSummary(getLog(), profileSummarySize);
+        try {
+            profiler.write(profileFile, goal);
+            getLog().info("Build profile written to " + profileFile);
+        } catch (IOException e) {
+            getLog().warn("Unable to write build profile to " + profileFile, e);
+        }
+    }
 }
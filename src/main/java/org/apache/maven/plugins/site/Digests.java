@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests of files and inputs, shared by the incremental rendering, the report cache and the deployment
+ * manifest. Public only because they live in different packages: not part of the plugin API.
+ *
+ * @since 3.22.1
+ */
+public final class Digests {
+    private static final int BUFFER_SIZE = 8192;
+
+    private Digests() {
+        // utility class
+    }
+
+    /**
+     * @return a new SHA-256 digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Update a digest with the content of a file.
+     *
+     * @param digest the digest
+     * @param file the file, ignored if it doesn't exist
+     * @throws IOException in case of IO issue
+     */
+    public static void update(MessageDigest digest, File file) throws IOException {
+        if (file != null && file.isFile()) {
+            read(digest, file);
+        }
+    }
+
+    /**
+     * Compute the digest of a file.
+     *
+     * @param file the file
+     * @return the SHA-256 digest of the content, in hexadecimal
+     * @throws IOException in case of IO issue
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        read(digest, file);
+        return toHex(digest.digest());
+    }
+
+    private static void read(MessageDigest digest, File file) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+
+    /**
+     * @param bytes the bytes of a digest
+     * @return the bytes in lower case hexadecimal
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -19,23 +19,39 @@
 package org.apache.maven.plugins.site.deploy;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.doxia.site.inheritance.URIPathDescriptor;
 import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.execution.BuildFailure;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.DistributionManagement;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
 import org.apache.maven.model.Site;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.site.AbstractSiteMojo;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
+import org.apache.maven.plugins.site.profile.ProfilingTransferListener;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Proxy;
 import org.apache.maven.settings.Server;
@@ -52,9 +68,14 @@ import org.apache.maven.wagon.Wagon;
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.apache.maven.wagon.events.TransferListener;
 import org.apache.maven.wagon.observers.Debug;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.repository.Repository;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.component.repository.exception.ComponentLifecycleException;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.eclipse.aether.transport.wagon.WagonConfigurator;
@@ -110,6 +131,182 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
     @Parameter(property = "maven.site.deploy.skip", defaultValue = "false")
     private boolean skipDeploy;
 
+    /**
+     * Upload only the files that changed since the previous deployment instead of the whole site.
+     * The checksums of the deployed files are stored next to the site, in <code>.site-manifest.sha256</code>:
+     * when this manifest doesn't exist yet, every file is uploaded.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.incremental", defaultValue = "false")
+    private boolean incrementalDeploy;
+
+    /**
+     * Delete the remote files that are not part of the site anymore, when {@link #incrementalDeploy} is enabled.
+     * This requires a wagon able to execute commands, like scp, or a <code>file:</code> URL.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.deleteStale", defaultValue = "false")
+    private boolean deleteStaleFiles;
+
+    /**
+     * Number of connections used to upload files concurrently, which helps when round trips to the server take
+     * longer than the transfers themselves. Authentication and proxy settings are the same for every connection.
+     * With more than one connection, files are uploaded one by one instead of with the directory copy of the wagon:
+     * for wagons like scp that copy a directory as a single archive, this is only useful with
+     * {@link #incrementalDeploy}.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.threads", defaultValue = "1")
+    private int deployThreads;
+
+    /**
+     * Upload the files as a single <code>tar.gz</code> archive extracted on the server, instead of one by one.
+     * This requires a wagon able to execute commands, like scp, and a POSIX shell with <code>tar</code> on the server.
+     * The archive is extracted next to the deployed directory, which is then swapped with it by renames: the
+     * parent of the deployed directory must be writable.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.archive", defaultValue = "false")
+    private boolean archiveDeploy;
+
+    /**
+     * Patterns of the files to deploy, relative to the site directory, like <code>**&#47;*.html</code> or
+     * <code>apidocs/</code> for a whole directory. By default, every file is deployed.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.includes")
+    private String[] deployIncludes;
+
+    /**
+     * Patterns of the files not to deploy, relative to the site directory. The directories of the other locales are
+     * always excluded from the deployment of the default locale, as each locale is deployed on its own.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.excludes")
+    private String[] deployExcludes;
+
+    /**
+     * Record the uploaded files in a local journal, so that a failed deployment resumes where it stopped when it is
+     * run again: files already uploaded with the same content are skipped. The journal is kept in
+     * <code>${project.build.directory}/site-deploy-journal</code> and deleted once the deployment succeeds, including
+     * the permission changes of {@link #chmod} and the switch of {@link #blueGreenDeploy}.
+     * Files are uploaded one by one.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.resumable", defaultValue = "false")
+    private boolean resumable;
+
+    /**
+     * Number of times the upload of a file is retried when it fails, waiting 1 second before the first retry and
+     * twice as long before each following one. This applies when files are uploaded one by one.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.retries", defaultValue = "2")
+    private int deployRetries;
+
+    /**
+     * Deploy the sites of every module of the reactor together, after the last module: modules deployed to the same
+     * repository share the same connections, and "chmod" runs once on the deployed directories instead of on the
+     * whole remote site for each module. Like with maven-deploy-plugin, the sites are deployed by the last of the
+     * reactor projects that run this goal, either from the command line or with an execution in their build. The
+     * build fails if the sites of some modules were collected but can't be deployed, because another module failed.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.atEnd", defaultValue = "false")
+    private boolean deployAtEnd;
+
+    /**
+     * Publish the site atomically: upload it to a new version directory next to the deployed directory, in
+     * <code>&lt;directory&gt;.versions/</code>, then switch the deployed directory, a symbolic link, to the new
+     * version once every file is uploaded. The repository must be a <code>file:</code> URL or use a wagon that can
+     * execute commands, like <code>scp:</code>, on a server with GNU or BSD <code>mv</code>. The sites of the modules
+     * of a reactor must be published together: the deployment fails for a reactor with several modules unless
+     * {@link #deployAtEnd} is set.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.blueGreen", defaultValue = "false")
+    private boolean blueGreenDeploy;
+
+    /**
+     * Count of versions kept by {@link #blueGreenDeploy}, including the published one: older versions are deleted.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.blueGreen.retention", defaultValue = "3")
+    private int blueGreenRetention;
+
+    /**
+     * Gzip compression of text files when they are uploaded one by one:
+     * <ul>
+     * <li><code>none</code>: files are uploaded as they are,</li>
+     * <li><code>precompressed</code>: compressed files are uploaded next to the original ones with a <code>.gz</code>
+     * extension, for web servers that serve precompressed files.</li>
+     * </ul>
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.compression", defaultValue = "none")
+    private String deployCompression;
+
+    /**
+     * Patterns of the files to compress when {@link #deployCompression} is enabled, relative to the site directory.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(
+            property = "maven.site.deploy.compression.includes",
+            defaultValue = "**/*.html,**/*.htm,**/*.css,**/*.js,**/*.svg,**/*.xml,**/*.txt,**/*.json")
+    private String[] deployCompressionIncludes;
+
+    /**
+     * Interval in seconds between the logs of the upload progress: files and bytes uploaded, throughput and
+     * estimated remaining time. With the default value of <code>0</code>, progress is not logged. The remaining time
+     * is estimated only when files are uploaded one by one.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.progressInterval", defaultValue = "0")
+    private int deployProgressInterval;
+
+    /**
+     * Write a JSON report of the deployment in {@link #deployReportFile}: bytes uploaded per directory, slowest files
+     * and failed attempts, with the throughput and the average time per file.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.deploy.report", defaultValue = "false")
+    private boolean deployReport;
+
+    /**
+     * File where the deployment report is written when {@link #deployReport} is enabled.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(
+            property = "maven.site.deploy.report.file",
+            defaultValue = "${project.build.directory}/site-deploy-report.json")
+    private File deployReportFile;
+
+    /**
+     * File where the deployment profile is written when {@link #profile} is enabled.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(
+            property = "maven.site.deploy.profile.file",
+            defaultValue = "${project.build.directory}/site-deploy-profile.json")
+    private File profileFile;
+
     /**
      * The current user system settings for use in Maven.
      */
@@ -122,10 +319,21 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
     @Parameter(defaultValue = "${session}", readonly = true)
     protected MavenSession mavenSession;
 
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true, required = true)
+    private MojoExecution mojoExecution;
+
+    private static final String DEPLOY_AT_END_KEY = "maven-site-plugin:deployAtEnd:";
+
+    private static final String COMPRESSION_NONE = "none";
+
+    private static final String COMPRESSION_PRECOMPRESSED = "precompressed";
+
     private String topDistributionManagementSiteUrl;
 
     private Site deploySite;
 
+    private TransferProgressListener progressListener;
+
     @Inject
     private Map<String, Wagon> wagons;
 
@@ -134,17 +342,30 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
 
     @Inject
     private WagonConfigurator wagonConfigurator;
+
+    @Inject
+    private PlexusContainer container;
+
+    @Inject
+    private Provider<TarArchiver> tarArchiverProvider;
+
     /**
      * {@inheritDoc}
      */
     public void execute() throws MojoExecutionException {
         if (skip && isDeploy()) {
             getLog().info("maven.site.skip = true: Skipping site deployment");
+            if (deployAtEnd) {
+                deployAtEnd(null);
+            }
             return;
         }
 
         if (skipDeploy && isDeploy()) {
             getLog().info("maven.site.deploy.skip = true: Skipping site deployment");
+            if (deployAtEnd) {
+                deployAtEnd(null);
+            }
             return;
         }
 
@@ -195,6 +416,16 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
 
     protected abstract String determineTopDistributionManagementSiteUrl() throws MojoExecutionException;
 
+    /**
+     * Detect if the files are staged to a local directory with links instead of copies.
+     *
+     * @return <code>true</code> if files are linked, when the site is staged to a <code>file:</code> URL
+     * @since 3.22.1
+     */
+    protected boolean isLinkStaging() {
+        return false;
+    }
+
     /**
      * Get the site used for deployment, with its id to look up credential settings and the target URL for deploying.
      * This should be a top-level URL, that is, above modules and locale subdirectories. Each deploy mojo
@@ -234,6 +465,243 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
         return ("".equals(relative)) ? "./" : relative;
     }
 
+    private void putDirectory(
+            WagonPool pool,
+            Repository repository,
+            File directory,
+            SiteFiles files,
+            String destination,
+            BuildProfiler profiler)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    MojoExecutionException {
+        BuildProfiler.Sample start = (profiler == null) ? null : profiler.start();
+        try {
+            if (isLinkStaging() && "file".equals(repository.getProtocol())) {
+                stage(directory, files.list(directory), new File(repository.getBasedir(), destination));
+            } else if (incrementalDeploy) {
+                putChanges(pool, repository, directory, files, destination);
+            } else if (isDirectoryUpload(pool, files)) {
+                // no expected totals: some wagons upload the directory as a single archive
+                pool.getWagons().get(0).putDirectory(directory, destination);
+            } else {
+                putFiles(pool, repository, directory, destination, files.list(directory), Collections.emptyList());
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error uploading " + directory, e);
+        } finally {
+            if (start != null) {
+                profiler.record("upload", destination, start);
+            }
+        }
+    }
+
+    /**
+     * Upload the files of a directory that changed since the previous deployment, according to the remote
+     * manifest, then the new manifest.
+     */
+    private void putChanges(
+            WagonPool pool, Repository repository, File directory, SiteFiles files, String destination)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    MojoExecutionException {
+        Wagon wagon = pool.getWagons().get(0);
+        String manifestPath = SiteManifest.resolve(destination, SiteManifest.NAME);
+        File manifestFile = null;
+        try {
+            SiteManifest manifest = SiteManifest.scan(directory, files);
+            manifestFile = Files.createTempFile("site-manifest", ".sha256").toFile();
+
+            SiteManifest previous;
+            try {
+                wagon.get(manifestPath, manifestFile);
+                previous = SiteManifest.read(manifestFile);
+            } catch (ResourceDoesNotExistException e) {
+                getLog().info("No site manifest found at " + manifestPath + ", uploading every file");
+                previous = new SiteManifest();
+            }
+
+            List<String> changes = manifest.getChanges(previous);
+            List<String> staleFiles = manifest.getStaleFiles(previous, files);
+            List<String> deletedFiles = staleFiles;
+            if (COMPRESSION_PRECOMPRESSED.equals(deployCompression) && !staleFiles.isEmpty()) {
+                deletedFiles = new ArrayList<>(staleFiles);
+                for (String path : staleFiles) {
+                    deletedFiles.add(path + SiteCompression.EXTENSION);
+                }
+            }
+            // an archive deletes the stale files in the same swap as the upload
+            boolean archiveDeletion = deleteStaleFiles && isArchiveDeploy(pool);
+
+            getLog().info("Uploading " + changes.size() + " new or modified files, "
+                    + (manifest.size() - changes.size()) + " unchanged");
+            putFiles(
+                    pool,
+                    repository,
+                    directory,
+                    destination,
+                    changes,
+                    archiveDeletion ? deletedFiles : Collections.emptyList());
+
+            if (!staleFiles.isEmpty()) {
+                if (archiveDeletion
+                        || (deleteStaleFiles && deleteStaleFiles(wagon, repository, destination, deletedFiles))) {
+                    getLog().info("Deleted " + staleFiles.size() + " stale files");
+                } else {
+                    // still deployed: keep them in the manifest to delete them later
+                    manifest.retain(previous, staleFiles);
+                }
+            }
+
+            manifest.retainExcluded(previous, files);
+            manifest.write(manifestFile);
+            wagon.put(manifestFile, manifestPath);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error uploading the changes of " + directory, e);
+        } finally {
+            if (manifestFile != null) {
+                FileUtils.deleteQuietly(manifestFile);
+            }
+        }
+    }
+
+    /**
+     * Check if a directory is uploaded with a single {@link Wagon#putDirectory(File, String)} call, which some wagons
+     * implement with an archive, rather than file by file.
+     */
+    private boolean isDirectoryUpload(WagonPool pool, SiteFiles files) {
+        return files.isAll()
+                && pool.getWagons().size() == 1
+                && !isArchiveDeploy(pool)
+                && !resumable
+                && COMPRESSION_NONE.equals(deployCompression);
+    }
+
+    private boolean isArchiveDeploy(WagonPool pool) {
+        return archiveDeploy && pool.getWagons().get(0) instanceof CommandExecutor;
+    }
+
+    private void stage(File directory, List<String> paths, File target) throws IOException {
+        LocalStaging staging = new LocalStaging(getLog());
+        staging.stage(directory, paths, target);
+        if (COMPRESSION_PRECOMPRESSED.equals(deployCompression)) {
+            File workDirectory = Files.createTempDirectory("site-deploy").toFile();
+            try {
+                SiteCompression compression = new SiteCompression(workDirectory, getCompressionFiles());
+                // links to the compressed files survive the deletion of the work directory
+                staging.stage(workDirectory, compression.compress(directory, paths), target);
+                logCompression(compression);
+            } finally {
+                FileUtils.deleteQuietly(workDirectory);
+            }
+        }
+        getLog().info("Staged " + staging.getLinked() + " files with links, " + staging.getCopied() + " copied");
+    }
+
+    /**
+     * Upload files, compressed according to {@link #deployCompression}.
+     *
+     * @param deletions the files to delete along with the upload, only supported by {@link #archiveDeploy}
+     */
+    private void putFiles(
+            WagonPool pool,
+            Repository repository,
+            File directory,
+            String destination,
+            List<String> paths,
+            List<String> deletions)
+            throws IOException, TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    MojoExecutionException {
+        if (COMPRESSION_NONE.equals(deployCompression)) {
+            transferFiles(pool, repository, destination, Collections.singletonMap(directory, paths), deletions);
+            return;
+        }
+        File workDirectory = Files.createTempDirectory("site-deploy").toFile();
+        try {
+            SiteCompression compression = new SiteCompression(workDirectory, getCompressionFiles());
+            Map<File, List<String>> files = new LinkedHashMap<>();
+            files.put(directory, paths);
+            files.put(workDirectory, compression.compress(directory, paths));
+            transferFiles(pool, repository, destination, files, deletions);
+            logCompression(compression);
+        } finally {
+            FileUtils.deleteQuietly(workDirectory);
+        }
+    }
+
+    private SiteFiles getCompressionFiles() {
+        return new SiteFiles(
+                (deployCompressionIncludes == null)
+                        ? Collections.emptyList()
+                        : Arrays.asList(deployCompressionIncludes),
+                Collections.emptyList());
+    }
+
+    private void logCompression(SiteCompression compression) {
+        if (compression.getOriginalBytes() > 0) {
+            getLog().info("Compressed " + compression.getOriginalBytes() / 1024 + " kB of text files to "
+                    + compression.getCompressedBytes() / 1024 + " kB");
+        }
+    }
+
+    private void transferFiles(
+            WagonPool pool,
+            Repository repository,
+            String destination,
+            Map<File, List<String>> files,
+            List<String> deletions)
+            throws IOException, TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    MojoExecutionException {
+        if (!isArchiveDeploy(pool)) {
+            for (Map.Entry<File, List<String>> entry : files.entrySet()) {
+                if (progressListener != null) {
+                    progressListener.expect(entry.getKey(), entry.getValue());
+                }
+                pool.put(entry.getKey(), destination, entry.getValue());
+            }
+            return;
+        }
+        try {
+            new ArchiveTransport(pool.getWagons().get(0), repository.getBasedir(), getLog())
+                    .put(tarArchiverProvider.get(), destination, files, deletions);
+        } catch (CommandExecutionException e) {
+            throw new MojoExecutionException("Error extracting the site archive", e);
+        }
+    }
+
+    /**
+     * Delete remote files, with a command for wagons that support them or directly for <code>file:</code> URLs.
+     *
+     * @return <code>true</code> if the files were deleted, <code>false</code> if the wagon doesn't support it
+     */
+    private boolean deleteStaleFiles(Wagon wagon, Repository repository, String destination, List<String> paths)
+            throws IOException, MojoExecutionException {
+        if (wagon instanceof CommandExecutor) {
+            String basedir = SiteManifest.resolve(repository.getBasedir(), destination);
+            // keep commands short enough for the remote shell
+            for (int i = 0; i < paths.size(); i += 100) {
+                StringBuilder command = new StringBuilder("rm -f");
+                for (String path : paths.subList(i, Math.min(i + 100, paths.size()))) {
+                    command.append(' ').append(ArchiveTransport.quote(SiteManifest.resolve(basedir, path)));
+                }
+                try {
+                    ((CommandExecutor) wagon).executeCommand(command.toString());
+                } catch (CommandExecutionException e) {
+                    throw new MojoExecutionException("Error deleting stale files", e);
+                }
+            }
+            return true;
+        }
+        if ("file".equals(repository.getProtocol())) {
+            File basedir = new File(repository.getBasedir(), destination);
+            for (String path : paths) {
+                Files.deleteIfExists(new File(basedir, path).toPath());
+            }
+            return true;
+        }
+        getLog().warn("Cannot delete " + paths.size() + " stale files: wagon protocol '" + repository.getProtocol()
+                + "' supports neither commands nor local files");
+        return false;
+    }
+
     /**
      * Use wagon to deploy the generated site to a given repository.
      *
@@ -253,28 +721,201 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
                     + repository.getId() + "'");
         }
 
-        deploy(inputDirectory, repository);
+        ModuleSite site = new ModuleSite(
+                repository, inputDirectory, getLocales(), getDeployModuleDirectory(), getSiteFiles());
+        if (deployAtEnd) {
+            deployAtEnd(site);
+        } else {
+            deploy(repository, Collections.singletonList(site));
+        }
+    }
+
+    private SiteFiles getSiteFiles() {
+        return new SiteFiles(
+                (deployIncludes == null) ? Collections.emptyList() : Arrays.asList(deployIncludes),
+                (deployExcludes == null) ? Collections.emptyList() : Arrays.asList(deployExcludes));
+    }
+
+    /**
+     * Record the site of this module in the plugin context of the project, then deploy the sites of every module if
+     * this module is the last one of the reactor projects running this goal.
+     *
+     * @param site the site of the module, or <code>null</code> if skipped
+     */
+    private void deployAtEnd(ModuleSite site) throws MojoExecutionException {
+        PluginDescriptor pluginDescriptor = mojoExecution.getMojoDescriptor().getPluginDescriptor();
+        String key = DEPLOY_AT_END_KEY + mojoExecution.getGoal();
+        List<ModuleSite> sites = new ArrayList<>();
+        List<String> failedProjects = new ArrayList<>();
+        synchronized (AbstractDeployMojo.class) {
+            getPluginContext().put(key, (site == null) ? Boolean.FALSE : site);
+            for (MavenProject reactorProject : mavenSession.getProjects()) {
+                if (reactorProject != project && !hasExecution(reactorProject, pluginDescriptor)) {
+                    continue;
+                }
+                Object value = mavenSession.getPluginContext(pluginDescriptor, reactorProject).get(key);
+                if (value == null) {
+                    if (mavenSession.getResult().getBuildSummary(reactorProject) instanceof BuildFailure) {
+                        failedProjects.add(reactorProject.getId());
+                        continue;
+                    }
+                    getLog().info("Deploying the site of " + project.getId() + " at the end of the build");
+                    return;
+                }
+                if (value instanceof ModuleSite) {
+                    sites.add((ModuleSite) value);
+                }
+            }
+        }
+        if (!failedProjects.isEmpty()) {
+            throw new MojoExecutionException("The sites of " + sites.size() + " modules were not deployed at the end"
+                    + " of the build, because of the failure of " + String.join(", ", failedProjects));
+        }
+
+        Map<String, List<ModuleSite>> sitesByRepository = new LinkedHashMap<>();
+        for (ModuleSite moduleSite : sites) {
+            sitesByRepository.computeIfAbsent(moduleSite.getRepositoryKey(), k -> new ArrayList<>()).add(moduleSite);
+        }
+        for (List<ModuleSite> repositorySites : sitesByRepository.values()) {
+            Repository repository = repositorySites.get(0).getRepository();
+            getLog().info("Deploying the sites of " + repositorySites.size() + " modules to " + repository.getUrl());
+            deploy(repository, repositorySites);
+        }
     }
 
-    private void deploy(final File directory, final Repository repository) throws MojoExecutionException {
+    /**
+     * Check if a reactor project runs the goal of this execution, like in maven-deploy-plugin: every project for a goal
+     * from the command line, otherwise the projects with an execution of the goal in their build.
+     */
+    private boolean hasExecution(MavenProject reactorProject, PluginDescriptor pluginDescriptor) {
+        if (mojoExecution.getSource() == MojoExecution.Source.CLI) {
+            return true;
+        }
+        Plugin plugin = reactorProject.getPlugin(pluginDescriptor.getPluginLookupKey());
+        if (plugin != null) {
+            for (PluginExecution execution : plugin.getExecutions()) {
+                if (execution.getGoals().contains(mojoExecution.getGoal())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void deploy(final Repository repository, final List<ModuleSite> sites) throws MojoExecutionException {
+        if (!Arrays.asList(COMPRESSION_NONE, COMPRESSION_PRECOMPRESSED).contains(deployCompression)) {
+            throw new MojoExecutionException(
+                    "Unknown deploy compression '" + deployCompression + "', expected one of none or precompressed");
+        }
+        BlueGreenPublication publication = null;
+        Repository target = repository;
+        if (blueGreenDeploy) {
+            if (!deployAtEnd && mavenSession.getProjects().size() > 1) {
+                throw new MojoExecutionException(
+                        "Blue/green deployment of the sites of several modules requires maven.site.deploy.atEnd");
+            }
+            try {
+                publication = new BlueGreenPublication(repository, Instant.now(), blueGreenRetention, getLog());
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            }
+            target = publication.getVersionRepository();
+        }
+
         // TODO: work on moving this into the deployer like the other deploy methods
-        final Wagon wagon = getWagon(repository);
+        final Wagon wagon = getWagon(target);
+        if (publication != null && !(wagon instanceof CommandExecutor) && !"file".equals(repository.getProtocol())) {
+            throw new MojoExecutionException("Wagon protocol '" + repository.getProtocol()
+                    + "' can't execute commands to publish the site atomically");
+        }
+        final List<Wagon> connections = new ArrayList<>();
+        connections.add(wagon);
+        final BuildProfiler profiler = newProfiler();
+        final List<TransferListener> listeners = new ArrayList<>();
+        if (profiler != null) {
+            listeners.add(new ProfilingTransferListener(profiler));
+        }
+        progressListener = (deployProgressInterval > 0 || deployReport)
+                ? new TransferProgressListener(getLog(), deployProgressInterval)
+                : null;
+        if (progressListener != null) {
+            listeners.add(progressListener);
+        }
 
+        DeployJournal journal = null;
         try {
-            ProxyInfo proxyInfo = getProxy(repository, settingsDecrypter);
+            for (TransferListener listener : listeners) {
+                wagon.addTransferListener(listener);
+            }
 
-            push(directory, repository, wagon, proxyInfo, getLocales(), getDeployModuleDirectory());
+            journal = openJournal(target);
+            List<String> destinations = push(target, connections, sites, profiler, listeners, publication, journal);
+
+            if (chmod && deployAtEnd) {
+                chmod(connections.get(0), target, destinations);
+            } else if (chmod) {
+                chmod(connections.get(0), target, chmodOptions, chmodMode);
+            }
 
-            if (chmod) {
-                chmod(wagon, repository, chmodOptions, chmodMode);
+            if (publication != null) {
+                publication.publish(connections.get(0));
             }
+
+            // only once the site is published: a failed chmod or publication resumes the deployment
+            if (journal != null) {
+                try {
+                    journal.delete();
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Error with the deployment journal", e);
+                }
+                journal = null;
+            }
+        } catch (IOException | CommandExecutionException e) {
+            throw new MojoExecutionException("Error publishing version " + publication.getVersion(), e);
         } finally {
+            if (journal != null) {
+                try {
+                    journal.close();
+                    getLog().info("Deployment journal kept with " + journal.size()
+                            + " uploaded files, run the deployment again to resume it");
+                } catch (IOException e) {
+                    getLog().warn("Error closing the deployment journal - ignored", e);
+                }
+            }
+            for (Wagon connection : connections) {
+                try {
+                    connection.disconnect();
+                } catch (ConnectionException e) {
+                    getLog().error("Error disconnecting wagon - ignored", e);
+                }
+                for (TransferListener listener : listeners) {
+                    // wagons are shared components
+                    connection.removeTransferListener(listener);
+                }
+                if (connection != wagon) {
+                    releaseWagon(connection);
+                }
+            }
+            if (profiler != null) {
+                writeProfile(profiler, profileFile, mojoExecution.getGoal());
+            }
+            if (progressListener != null) {
+                writeProgressReport();
+            }
+        }
+    }
+
+    private void writeProgressReport() {
+        progressListener.logSummary();
+        if (deployReport) {
             try {
-                wagon.disconnect();
-            } catch (ConnectionException e) {
-                getLog().error("Error disconnecting wagon - ignored", e);
+                progressListener.write(deployReportFile);
+                getLog().info("Deployment report written to " + deployReportFile);
+            } catch (IOException e) {
+                getLog().warn("Unable to write deployment report to " + deployReportFile, e);
             }
         }
+        progressListener = null;
     }
 
     private Wagon getWagon(final Repository repository) throws MojoExecutionException {
@@ -290,6 +931,40 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
             throw new MojoExecutionException(
                     "Wagon protocol '" + repository.getProtocol() + "' doesn't support directory copying");
         }
+        configureWagon(wagon, repository);
+        return wagon;
+    }
+
+    /**
+     * Get another instance of the wagon for a repository, for an additional connection.
+     *
+     * @return the wagon, or <code>null</code> if the wagon of the protocol is a singleton
+     */
+    private Wagon newWagon(final Repository repository, final List<Wagon> connections)
+            throws MojoExecutionException {
+        Wagon wagon;
+        try {
+            wagon = container.lookup(Wagon.class, repository.getProtocol().toLowerCase(Locale.ROOT));
+        } catch (ComponentLookupException e) {
+            throw new MojoExecutionException(
+                    "Cannot find wagon which supports the requested protocol: " + repository.getProtocol(), e);
+        }
+        if (connections.contains(wagon)) {
+            return null;
+        }
+        configureWagon(wagon, repository);
+        return wagon;
+    }
+
+    private void releaseWagon(Wagon wagon) {
+        try {
+            container.release(wagon);
+        } catch (ComponentLifecycleException e) {
+            getLog().debug("Error releasing wagon - ignored", e);
+        }
+    }
+
+    private void configureWagon(final Wagon wagon, final Repository repository) throws MojoExecutionException {
         // retrieve relevant settings
         Server server = settings.getServer(repository.getId());
         // taken over from
@@ -312,7 +987,6 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
                         e);
             }
         }
-        return wagon;
     }
 
     public AuthenticationInfo getAuthenticationInfo(String id) {
@@ -341,59 +1015,199 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
         return null;
     }
 
-    private void push(
-            final File inputDirectory,
+    /**
+     * Push the sites of modules to a repository.
+     *
+     * @param journal the journal of the uploaded files, or <code>null</code>
+     * @return the deployed directories, relative to the repository
+     */
+    private List<String> push(
             final Repository repository,
-            final Wagon wagon,
-            final ProxyInfo proxyInfo,
-            final List<Locale> localesList,
-            final String relativeDir)
+            final List<Wagon> connections,
+            final List<ModuleSite> sites,
+            final BuildProfiler profiler,
+            final List<TransferListener> listeners,
+            final BlueGreenPublication publication,
+            final DeployJournal journal)
             throws MojoExecutionException {
         AuthenticationInfo authenticationInfo = getAuthenticationInfo(repository.getId());
         if (authenticationInfo != null) {
             getLog().debug("authenticationInfo with id '" + repository.getId() + "'");
         }
+        ProxyInfo proxyInfo = getProxy(repository, settingsDecrypter);
 
         try {
-            if (getLog().isDebugEnabled()) {
-                Debug debug = new Debug();
+            connect(connections.get(0), repository, authenticationInfo, proxyInfo);
+
+            while (connections.size() < deployThreads) {
+                Wagon wagon = newWagon(repository, connections);
+                if (wagon == null) {
+                    getLog().warn("Wagon protocol '" + repository.getProtocol()
+                            + "' doesn't support several connections, using " + connections.size());
+                    break;
+                }
+                for (TransferListener listener : listeners) {
+                    wagon.addTransferListener(listener);
+                }
+                connect(wagon, repository, authenticationInfo, proxyInfo);
+                connections.add(wagon);
+            }
+            WagonPool pool = new WagonPool(connections, deployRetries, journal, getLog());
+            pool.setProgressListener(progressListener);
+            if (archiveDeploy && !isArchiveDeploy(pool)) {
+                getLog().warn("Wagon protocol '" + repository.getProtocol()
+                        + "' can't execute commands, uploading files without archive");
+            }
+            if (publication != null && incrementalDeploy) {
+                // the new version starts as a copy of the live one, to upload only the changes
+                try {
+                    publication.copyLiveSite(connections.get(0));
+                } catch (IOException | CommandExecutionException e) {
+                    throw new MojoExecutionException("Error copying the live site to the new version", e);
+                }
+            }
 
-                wagon.addSessionListener(debug);
+            List<String> destinations = new ArrayList<>();
+            for (ModuleSite site : sites) {
+                destinations.addAll(push(repository, pool, site, profiler));
+            }
+            return destinations;
+        } catch (ResourceDoesNotExistException
+                | TransferFailedException
+                | AuthorizationException
+                | ConnectionException
+                | AuthenticationException e) {
+            throw new MojoExecutionException("Error uploading site", e);
+        }
+    }
 
-                wagon.addTransferListener(debug);
+    /**
+     * Open the journal of the deployment to a repository, if {@link #resumable}.
+     *
+     * @return the journal, or <code>null</code>
+     */
+    private DeployJournal openJournal(Repository repository) throws MojoExecutionException {
+        if (!resumable) {
+            return null;
+        }
+        DeployJournal journal;
+        try {
+            journal = DeployJournal.open(
+                    new File(project.getBuild().getDirectory(), "site-deploy-journal"), repository.getUrl());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error with the deployment journal", e);
+        }
+        if (journal.size() > 0) {
+            getLog().info("Resuming the deployment: " + journal.size() + " files already uploaded");
+        }
+        return journal;
+    }
+
+    private List<String> push(Repository repository, WagonPool pool, ModuleSite site, BuildProfiler profiler)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    MojoExecutionException {
+        File inputDirectory = site.getDirectory();
+        String relativeDir = site.getRelativeDir();
+        SiteFiles files = site.getFiles();
+        getLog().info("Pushing " + inputDirectory);
+
+        // when the whole directory is uploaded at once, excluding the other locales would upload file by file instead
+        boolean directoryUpload = !(isLinkStaging() && "file".equals(repository.getProtocol()))
+                && !incrementalDeploy
+                && isDirectoryUpload(pool, files);
+
+        // locales deployed on their own, excluded from the deployment of the default locale
+        List<String> localeDirectories = new ArrayList<>();
+        for (Locale locale : site.getLocales()) {
+            if (!locale.equals(SiteTool.DEFAULT_LOCALE) && !directoryUpload) {
+                localeDirectories.add(locale + "/");
             }
+        }
 
-            if (proxyInfo != null) {
-                getLog().debug("connect with proxyInfo");
-                wagon.connect(repository, authenticationInfo, proxyInfo);
-            } else if (authenticationInfo != null) {
-                getLog().debug("connect with authenticationInfo and without proxyInfo");
-                wagon.connect(repository, authenticationInfo);
+        List<String> destinations = new ArrayList<>();
+        for (Locale locale : site.getLocales()) {
+            if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
+                String destination = locale + "/" + relativeDir;
+                if (directoryUpload && isSameDirectory(destination, relativeDir + locale + "/")) {
+                    // deployed with the default locale
+                    continue;
+                }
+                getLog().info("   >>> to " + appendSlash(repository.getUrl()) + destination);
+
+                putDirectory(
+                        pool, repository, new File(inputDirectory, locale.toString()), files, destination, profiler);
+                destinations.add(destination);
             } else {
-                getLog().debug("connect without authenticationInfo and without proxyInfo");
-                wagon.connect(repository);
+                getLog().info("   >>> to " + appendSlash(repository.getUrl()) + relativeDir);
+
+                putDirectory(
+                        pool, repository, inputDirectory, files.exclude(localeDirectories), relativeDir, profiler);
+                destinations.add(relativeDir);
             }
+        }
+        return destinations;
+    }
 
-            getLog().info("Pushing " + inputDirectory);
+    /**
+     * Check if two site-relative directories are the same once their <code>.</code> segments are removed.
+     */
+    static boolean isSameDirectory(String directory1, String directory2) {
+        return normalizeDirectory(directory1).equals(normalizeDirectory(directory2));
+    }
 
-            for (Locale locale : localesList) {
-                if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
-                    getLog().info("   >>> to " + appendSlash(repository.getUrl()) + locale + "/" + relativeDir);
+    private static String normalizeDirectory(String directory) {
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : directory.split("/")) {
+            if (!segment.isEmpty() && !".".equals(segment)) {
+                normalized.append(segment).append('/');
+            }
+        }
+        return normalized.toString();
+    }
 
-                    wagon.putDirectory(new File(inputDirectory, locale.toString()), locale + "/" + relativeDir);
-                } else {
-                    // TODO: this also uploads the non-default locales,
-                    // is there a way to exclude directories in wagon?
-                    getLog().info("   >>> to " + appendSlash(repository.getUrl()) + relativeDir);
+    private void connect(
+            final Wagon wagon,
+            final Repository repository,
+            final AuthenticationInfo authenticationInfo,
+            final ProxyInfo proxyInfo)
+            throws ConnectionException, AuthenticationException {
+        if (getLog().isDebugEnabled()) {
+            Debug debug = new Debug();
 
-                    wagon.putDirectory(inputDirectory, relativeDir);
-                }
-            }
-        } catch (ResourceDoesNotExistException
-                | TransferFailedException
-                | AuthorizationException
-                | ConnectionException
-                | AuthenticationException e) {
+            wagon.addSessionListener(debug);
+
+            wagon.addTransferListener(debug);
+        }
+
+        if (proxyInfo != null) {
+            getLog().debug("connect with proxyInfo");
+            wagon.connect(repository, authenticationInfo, proxyInfo);
+        } else if (authenticationInfo != null) {
+            getLog().debug("connect with authenticationInfo and without proxyInfo");
+            wagon.connect(repository, authenticationInfo);
+        } else {
+            getLog().debug("connect without authenticationInfo and without proxyInfo");
+            wagon.connect(repository);
+        }
+    }
+
+    /**
+     * Run "chmod" once on deployed directories.
+     */
+    private void chmod(final Wagon wagon, final Repository repository, final List<String> destinations)
+            throws MojoExecutionException {
+        if (!(wagon instanceof CommandExecutor)) {
+            // silently ignore, FileWagon is not a CommandExecutor!
+            return;
+        }
+        StringBuilder command = new StringBuilder("chmod " + chmodOptions + " " + chmodMode);
+        for (String directory : ModuleSite.getTopDirectories(destinations)) {
+            String path = SiteManifest.resolve(repository.getBasedir(), directory);
+            command.append(' ').append(ArchiveTransport.quote(path));
+        }
+        try {
+            ((CommandExecutor) wagon).executeCommand(command.toString());
+        } catch (CommandExecutionException e) {
             throw new MojoExecutionException("Error uploading site", e);
         }
     }
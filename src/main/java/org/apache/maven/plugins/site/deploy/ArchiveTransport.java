@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.wagon.CommandExecutionException;
+import org.apache.maven.wagon.CommandExecutor;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.archiver.tar.TarLongFileMode;
+
+/**
+ * Upload of site files as a single <code>tar.gz</code> archive, extracted on the server with a command: one large
+ * transfer instead of a round trip per file. The new content of the deployed directory is prepared in a directory
+ * next to it, then swapped with it by two renames once the whole archive was transferred and extracted, so readers
+ * never see a partially extracted site. The deployed directory also contains the sites of the modules and of the
+ * other locales: its top level entries which are not part of the archive are moved to the new directory right before
+ * the swap, and the directories in which files are uploaded or deleted are copied to it before the extraction.
+ *
+ * @since 3.22.1
+ */
+final class ArchiveTransport {
+    private final Wagon wagon;
+
+    private final String basedir;
+
+    private final Log log;
+
+    /**
+     * @param wagon the connected wagon, which must be a {@link CommandExecutor}
+     * @param basedir the base directory of the repository on the server
+     * @param log the log
+     */
+    ArchiveTransport(Wagon wagon, String basedir, Log log) {
+        this.wagon = wagon;
+        this.basedir = basedir;
+        this.log = log;
+    }
+
+    /**
+     * Upload files of local directories, and delete files, in a single swap of the destination directory.
+     *
+     * @param archiver a new archiver
+     * @param destination the destination directory on the repository
+     * @param files the paths of the files to upload, relative to both their local directory and the destination
+     * @param deletions the paths of the files to delete, relative to the destination
+     * @throws IOException if the archive can't be created
+     * @throws TransferFailedException if the upload fails
+     * @throws ResourceDoesNotExistException if the destination doesn't exist
+     * @throws AuthorizationException if the upload isn't authorized
+     * @throws CommandExecutionException if the archive can't be extracted
+     */
+    void put(TarArchiver archiver, String destination, Map<File, ? extends Collection<String>> files,
+            Collection<String> deletions)
+            throws IOException, TransferFailedException, ResourceDoesNotExistException, AuthorizationException,
+                    CommandExecutionException {
+        Set<String> entries = new TreeSet<>();
+        int count = 0;
+        for (Collection<String> paths : files.values()) {
+            for (String path : paths) {
+                entries.add(getTopLevelEntry(path));
+            }
+            count += paths.size();
+        }
+        for (String path : deletions) {
+            entries.add(getTopLevelEntry(path));
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        String name = ".site-deploy-" + UUID.randomUUID();
+        File archive = Files.createTempFile("site-deploy", ".tar.gz").toFile();
+        try {
+            archiver.setCompression(TarArchiver.TarCompressionMethod.gzip);
+            archiver.setLongfile(TarLongFileMode.posix);
+            for (Map.Entry<File, ? extends Collection<String>> entry : files.entrySet()) {
+                for (String path : entry.getValue()) {
+                    archiver.addFile(new File(entry.getKey(), path), path);
+                }
+            }
+            archiver.setDestFile(archive);
+            archiver.setForced(true);
+            archiver.createArchive();
+        } catch (ArchiverException e) {
+            FileUtils.deleteQuietly(archive);
+            throw new IOException("Error creating the archive of " + files.keySet(), e);
+        }
+
+        String target = trimTrailingSeparators(SiteManifest.resolve(basedir, destination));
+        int slash = target.lastIndexOf('/');
+        // next to the target, on the same file system for the renames
+        String parent = (slash < 0) ? "." : (slash == 0) ? "/" : target.substring(0, slash);
+        String staging = SiteManifest.resolve(parent, name + ".new");
+        String previous = SiteManifest.resolve(parent, name + ".old");
+        // the archive can only be uploaded in the repository: it is excluded from the new directory
+        String remoteArchive = SiteManifest.resolve(target, name + ".tar.gz");
+        entries.add(name + ".tar.gz");
+        CommandExecutor executor = (CommandExecutor) wagon;
+        try {
+            log.info("Uploading " + count + " files as a " + FileUtils.byteCountToDisplaySize(archive.length())
+                    + " archive");
+            wagon.put(archive, SiteManifest.resolve(destination, name + ".tar.gz"));
+
+            executor.executeCommand(getSwapCommand(target, staging, previous, remoteArchive, entries, deletions));
+        } finally {
+            FileUtils.deleteQuietly(archive);
+            try {
+                executor.executeCommand(
+                        "rm -rf " + quote(staging) + " " + quote(previous) + " " + quote(remoteArchive));
+            } catch (CommandExecutionException e) {
+                log.warn("Error removing " + remoteArchive + " - ignored", e);
+            }
+        }
+    }
+
+    /**
+     * Build the command extracting the archive next to the target, and swapping it with the target.
+     */
+    private static String getSwapCommand(
+            String target,
+            String staging,
+            String previous,
+            String remoteArchive,
+            Set<String> entries,
+            Collection<String> deletions) {
+        StringBuilder command = new StringBuilder("set -e; trap ")
+                .append(quote("rm -rf " + quote(staging) + " " + quote(previous) + " " + quote(remoteArchive)))
+                .append(" EXIT; mkdir ")
+                .append(quote(staging))
+                .append("; ");
+        StringBuilder pattern = new StringBuilder();
+        for (String entry : entries) {
+            // keep the other files of the directories which are updated
+            command.append("if [ -d ")
+                    .append(quote(target + '/' + entry))
+                    .append(" ]; then cp -Rp ")
+                    .append(quote(target + '/' + entry))
+                    .append(' ')
+                    .append(quote(staging))
+                    .append("; fi; ");
+            if (pattern.length() > 0) {
+                pattern.append('|');
+            }
+            pattern.append(quote(entry));
+        }
+        command.append("tar -xzf ")
+                .append(quote(remoteArchive))
+                .append(" -C ")
+                .append(quote(staging))
+                .append("; ");
+        if (!deletions.isEmpty()) {
+            command.append("rm -f");
+            for (String path : deletions) {
+                command.append(' ').append(quote(staging + '/' + path));
+            }
+            command.append("; ");
+        }
+        // the sites of the modules and the other locales, and the directories without changes
+        command.append("if [ -d ")
+                .append(quote(target))
+                .append(" ]; then for f in ")
+                .append(quote(target))
+                .append("/* ")
+                .append(quote(target))
+                .append("/.[!.]* ")
+                .append(quote(target))
+                .append("/..?*; do if [ -e \"$f\" ] || [ -h \"$f\" ]; then case \"${f##*/}\" in ")
+                .append(pattern)
+                .append(") ;; *) mv \"$f\" ")
+                .append(quote(staging))
+                .append(" ;; esac; fi; done; mv ")
+                .append(quote(target))
+                .append(' ')
+                .append(quote(previous))
+                .append("; fi; mv ")
+                .append(quote(staging))
+                .append(' ')
+                .append(quote(target));
+        return command.toString();
+    }
+
+    private static String getTopLevelEntry(String path) {
+        int slash = path.indexOf('/');
+        return (slash < 0) ? path : path.substring(0, slash);
+    }
+
+    private static String trimTrailingSeparators(String path) {
+        String trimmed = path;
+        while (trimmed.length() > 1 && (trimmed.endsWith("/") || trimmed.endsWith("/."))) {
+            trimmed = trimmed.substring(0, trimmed.lastIndexOf('/'));
+        }
+        return trimmed;
+    }
+
+    /**
+     * Quote a path for a POSIX shell.
+     *
+     * @param path the path
+     * @return the quoted path
+     */
+    static String quote(String path) {
+        return '\'' + path.replace("'", "'\\''") + '\'';
+    }
+}
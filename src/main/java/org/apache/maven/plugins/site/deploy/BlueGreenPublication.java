@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.wagon.CommandExecutionException;
+import org.apache.maven.wagon.CommandExecutor;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * Blue/green publication of a site: the site is uploaded to a new version directory next to the live one, then the
+ * live directory, a symbolic link to the current version, is switched to the new version in one atomic rename.
+ * Readers never see a partially uploaded site, and the oldest versions are deleted past a retention count.
+ * <p>
+ * With a repository <code>/var/www/site</code>, versions are uploaded to <code>/var/www/site.versions/</code>: the
+ * first publication moves the existing directory there as the initial version. Remote repositories need a wagon
+ * executing commands, and a server replacing a link with <code>mv -T</code> (GNU) or <code>mv -h</code> (BSD): the
+ * publication fails on other servers, before the live site is switched. <code>file:</code> repositories are switched
+ * locally. The version the live site links to is never deleted, even past the retention count.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+final class BlueGreenPublication {
+    /**
+     * Suffix of the directory of the versions, next to the live directory.
+     */
+    static final String VERSIONS_SUFFIX = ".versions";
+
+    /**
+     * Version of the directory that existed before the first publication, sorted before every other one.
+     */
+    private static final String INITIAL_VERSION = "00000000-000000-000";
+
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Repository repository;
+
+    private final String parent;
+
+    private final String name;
+
+    private final String version;
+
+    private final int retention;
+
+    private final Log log;
+
+    /**
+     * @param repository the repository of the live site, which must not be the root directory
+     * @param time the time of the publication, which names the new version
+     * @param retention the count of versions to keep, including the new one
+     * @param log the log
+     */
+    BlueGreenPublication(Repository repository, Instant time, int retention, Log log) {
+        this.repository = repository;
+        String basedir = stripSlashes(repository.getBasedir().replace('\\', '/'));
+        int index = basedir.lastIndexOf('/');
+        if (index < 0 || index == basedir.length() - 1) {
+            throw new IllegalArgumentException("Cannot publish the root directory " + repository.getBasedir());
+        }
+        this.parent = (index == 0) ? "/" : basedir.substring(0, index);
+        this.name = basedir.substring(index + 1);
+        this.version = VERSION_FORMAT.format(time);
+        this.retention = Math.max(1, retention);
+        this.log = log;
+    }
+
+    /**
+     * @return the repository of the new version, to deploy the site to
+     */
+    Repository getVersionRepository() {
+        return new Repository(
+                repository.getId(), stripSlashes(repository.getUrl()) + VERSIONS_SUFFIX + '/' + version + '/');
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Copy the live site to the new version on the server, to upload only the changes.
+     *
+     * @param wagon the connected wagon
+     * @throws IOException in case of IO issue with a local repository
+     * @throws CommandExecutionException if the copy fails on the server
+     */
+    void copyLiveSite(Wagon wagon) throws IOException, CommandExecutionException {
+        if (wagon instanceof CommandExecutor) {
+            String live = quote(name);
+            String target = quote(name + VERSIONS_SUFFIX + '/' + version);
+            execute(wagon, "cd " + quote(parent) + " && if [ -d " + live + " ]; then mkdir -p " + target
+                    + " && cp -a " + live + "/. " + target + "/; fi");
+        } else {
+            File live = new File(parent, name);
+            if (live.isDirectory()) {
+                FileUtils.copyDirectory(live, new File(parent, name + VERSIONS_SUFFIX + '/' + version));
+            }
+        }
+    }
+
+    /**
+     * Switch the live site to the new version, then delete the versions past the retention count.
+     *
+     * @param wagon the connected wagon
+     * @throws IOException in case of IO issue with a local repository
+     * @throws CommandExecutionException if the switch fails on the server
+     */
+    void publish(Wagon wagon) throws IOException, CommandExecutionException {
+        String versions = name + VERSIONS_SUFFIX;
+        String link = name + '.' + version + ".tmp";
+        if (wagon instanceof CommandExecutor) {
+            execute(
+                    wagon,
+                    "cd " + quote(parent) + " && mkdir -p " + quote(versions) + " && if [ -d " + quote(name)
+                            + " ] && [ ! -L " + quote(name) + " ]; then mv " + quote(name) + ' '
+                            + quote(versions + '/' + INITIAL_VERSION) + "; fi && ln -sfn "
+                            + quote(versions + '/' + version) + ' ' + quote(link) + " && { mv -Tf " + quote(link)
+                            + ' ' + quote(name) + " 2>/dev/null || mv -hf " + quote(link) + ' ' + quote(name)
+                            + " 2>/dev/null || { rm -f " + quote(link)
+                            + "; echo 'Cannot replace the link without GNU mv -T or BSD mv -h' >&2; exit 1; }; }");
+            // the live version is kept, and counted in the retention, whatever its place in the list
+            execute(
+                    wagon,
+                    "cd " + quote(parent) + " && live=$(readlink " + quote(name) + ") && live=${live##*/} && cd "
+                            + quote(versions) + " && ls -1 | sort -r | while read -r v; do if [ \"$v\" != \"$live\" ];"
+                            + " then echo \"$v\"; fi; done | tail -n +" + retention
+                            + " | while read -r v; do rm -rf -- \"$v\"; done");
+        } else {
+            Path live = Paths.get(parent, name);
+            Path versionsDirectory = Files.createDirectories(Paths.get(parent, versions));
+            if (Files.isDirectory(live) && !Files.isSymbolicLink(live)) {
+                Files.move(live, versionsDirectory.resolve(INITIAL_VERSION));
+            }
+            Path tmp = Files.createSymbolicLink(Paths.get(parent, link), Paths.get(versions, version));
+            Files.move(tmp, live, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            String liveVersion = Files.readSymbolicLink(live).getFileName().toString();
+            List<String> names = new ArrayList<>(Arrays.asList(versionsDirectory.toFile().list()));
+            names.remove(liveVersion);
+            names.sort(Collections.reverseOrder());
+            // the live version counts as one of the versions to keep
+            for (int i = retention - 1; i < names.size(); i++) {
+                FileUtils.deleteDirectory(versionsDirectory.resolve(names.get(i)).toFile());
+            }
+        }
+        log.info("Published version " + version + " of " + repository.getUrl());
+    }
+
+    private void execute(Wagon wagon, String command) throws CommandExecutionException {
+        log.debug("Executing " + command);
+        ((CommandExecutor) wagon).executeCommand(command);
+    }
+
+    private static String quote(String path) {
+        return ArchiveTransport.quote(path);
+    }
+
+    private static String stripSlashes(String path) {
+        String stripped = path;
+        while (stripped.length() > 1 && stripped.endsWith("/")) {
+            stripped = stripped.substring(0, stripped.length() - 1);
+        }
+        return stripped;
+    }
+}
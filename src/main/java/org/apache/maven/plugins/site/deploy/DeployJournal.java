@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Local journal of the files uploaded to a repository, so that a deployment that failed can be resumed: files
+ * that were already uploaded with the same content are skipped. Every completed transfer is appended to the journal,
+ * which is deleted once the deployment succeeds.
+ *
+ * @since 3.22.1
+ */
+final class DeployJournal {
+    private final File file;
+
+    private final Map<String, String> transfers = new ConcurrentHashMap<>();
+
+    private Writer writer;
+
+    private DeployJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the journal of a repository, with the transfers of a previous failed deployment if any.
+     *
+     * @param directory the directory of the journals
+     * @param repositoryUrl the URL of the repository
+     * @return the journal
+     * @throws IOException in case of IO issue
+     */
+    static DeployJournal open(File directory, String repositoryUrl) throws IOException {
+        String key = Digests.toHex(
+                Digests.newDigest().digest(repositoryUrl.getBytes(StandardCharsets.UTF_8)));
+        File file = new File(directory, key.substring(0, 16) + ".journal");
+        DeployJournal journal = new DeployJournal(file);
+        if (file.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int index = line.indexOf("  ");
+                    if (index > 0) {
+                        journal.transfers.put(line.substring(index + 2), line.substring(0, index));
+                    }
+                }
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * @return the count of transfers in the journal
+     */
+    int size() {
+        return transfers.size();
+    }
+
+    /**
+     * @param resource the path of the file on the repository
+     * @param digest the digest of the local file
+     * @return <code>true</code> if the file was already uploaded with the same content
+     */
+    boolean isTransferred(String resource, String digest) {
+        return digest.equals(transfers.get(resource));
+    }
+
+    /**
+     * Record a completed transfer.
+     *
+     * @param resource the path of the file on the repository
+     * @param digest the digest of the uploaded file
+     * @throws IOException in case of IO issue
+     */
+    synchronized void transferred(String resource, String digest) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(file.getParentFile().toPath());
+            writer = Files.newBufferedWriter(
+                    file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(digest + "  " + resource + '\n');
+        // the journal must survive the failure of the build
+        writer.flush();
+        transfers.put(resource, digest);
+    }
+
+    /**
+     * Close the journal, keeping it to resume the deployment.
+     *
+     * @throws IOException in case of IO issue
+     */
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Close and delete the journal, once the deployment succeeded.
+     *
+     * @throws IOException in case of IO issue
+     */
+    synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file.toPath());
+        transfers.clear();
+    }
+}
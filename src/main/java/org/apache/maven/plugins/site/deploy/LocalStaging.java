@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Staging of site files in a local directory with hard links instead of copies: staging is almost instant and uses
+ * no additional space. When a file can't be linked, for example because the staging directory is on another file
+ * system, it is copied with NIO, which uses copy-on-write clones on the platforms and file systems that support it.
+ * A linked file shares its content with its source, so writing either in place changes both: staging with links is
+ * opt-in.
+ *
+ * @since 3.22.1
+ */
+final class LocalStaging {
+    private final Log log;
+
+    private boolean linkSupported = true;
+
+    private int linked;
+
+    private int copied;
+
+    LocalStaging(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Stage files of a local directory.
+     *
+     * @param directory the site directory
+     * @param paths the paths of the files to stage, relative to the directories
+     * @param target the staging directory
+     * @throws IOException in case of IO issue
+     */
+    void stage(File directory, Collection<String> paths, File target) throws IOException {
+        for (String path : paths) {
+            Path source = new File(directory, path).toPath();
+            Path destination = new File(target, path).toPath();
+            Files.createDirectories(destination.getParent());
+            if (Files.exists(destination)) {
+                if (Files.isSameFile(source, destination)) {
+                    linked++;
+                    continue;
+                }
+                Files.delete(destination);
+            }
+            if (linkSupported) {
+                try {
+                    Files.createLink(destination, source);
+                    linked++;
+                    continue;
+                } catch (IOException | UnsupportedOperationException e) {
+                    log.debug("Cannot link " + destination + ", copying files instead", e);
+                    linkSupported = false;
+                }
+            }
+            Files.copy(source, destination, StandardCopyOption.COPY_ATTRIBUTES);
+            copied++;
+        }
+    }
+
+    int getLinked() {
+        return linked;
+    }
+
+    int getCopied() {
+        return copied;
+    }
+}
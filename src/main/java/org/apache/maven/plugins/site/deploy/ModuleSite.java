@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * The generated site of a module to deploy: its local directory, with its locales, and its directory relative to the
+ * top site on the repository.
+ *
+ * @since 3.22.1
+ */
+final class ModuleSite {
+    private final Repository repository;
+
+    private final File directory;
+
+    private final List<Locale> locales;
+
+    private final String relativeDir;
+
+    private final SiteFiles files;
+
+    ModuleSite(Repository repository, File directory, List<Locale> locales, String relativeDir, SiteFiles files) {
+        this.repository = repository;
+        this.directory = directory;
+        this.locales = locales;
+        this.relativeDir = relativeDir;
+        this.files = files;
+    }
+
+    Repository getRepository() {
+        return repository;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    List<Locale> getLocales() {
+        return locales;
+    }
+
+    String getRelativeDir() {
+        return relativeDir;
+    }
+
+    SiteFiles getFiles() {
+        return files;
+    }
+
+    /**
+     * Get the key of the repository, to deploy the modules of the same repository together.
+     *
+     * @return the id and URL of the repository
+     */
+    String getRepositoryKey() {
+        return repository.getId() + '|' + repository.getUrl();
+    }
+
+    /**
+     * Reduce deployed directories to the top ones, the other ones being subdirectories of them.
+     *
+     * @param destinations directories relative to the repository, like <code>./</code> or <code>fr/module</code>
+     * @return the top directories, with <code>.</code> for the repository itself
+     */
+    static List<String> getTopDirectories(Collection<String> destinations) {
+        List<String> normalized = new ArrayList<>();
+        for (String destination : destinations) {
+            String path = destination.replace('\\', '/');
+            while (path.endsWith("/.") || path.endsWith("/")) {
+                path = path.substring(0, path.length() - (path.endsWith("/") ? 1 : 2));
+            }
+            if (path.isEmpty() || ".".equals(path)) {
+                // the whole repository
+                normalized.clear();
+                normalized.add(".");
+                return normalized;
+            }
+            if (!normalized.contains(path)) {
+                normalized.add(path);
+            }
+        }
+        List<String> top = new ArrayList<>();
+        for (String path : normalized) {
+            boolean nested = false;
+            for (String other : normalized) {
+                if (path.startsWith(other + '/')) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                top.add(path);
+            }
+        }
+        return top;
+    }
+}
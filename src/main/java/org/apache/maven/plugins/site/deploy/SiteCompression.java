@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of the text files of a site before their upload, in a work directory: compressed files are
+ * uploaded next to the original ones as <code>.gz</code> files for web servers that serve precompressed files.
+ * <code>.gz</code> files are always written, even when they don't get smaller, so that a web server never serves an
+ * outdated one.
+ *
+ * @since 3.22.1
+ */
+final class SiteCompression {
+    /**
+     * Extension of the compressed files uploaded next to the original ones.
+     */
+    static final String EXTENSION = ".gz";
+
+    private final File workDirectory;
+
+    private final SiteFiles files;
+
+    private long originalBytes;
+
+    private long compressedBytes;
+
+    /**
+     * @param workDirectory the directory where compressed files are written
+     * @param files the files to compress
+     */
+    SiteCompression(File workDirectory, SiteFiles files) {
+        this.workDirectory = workDirectory;
+        this.files = files;
+    }
+
+    /**
+     * Compress files of a local directory in the work directory.
+     *
+     * @param directory the site directory
+     * @param paths the paths of the files, relative to the directory
+     * @return the paths of the compressed files, relative to the work directory
+     * @throws IOException in case of IO issue
+     */
+    List<String> compress(File directory, Collection<String> paths) throws IOException {
+        List<String> compressed = new ArrayList<>();
+        for (String path : paths) {
+            if (!files.isSelected(path)) {
+                continue;
+            }
+            File file = new File(directory, path);
+            File target = new File(workDirectory, path + EXTENSION);
+            Files.createDirectories(target.getParentFile().toPath());
+            try (OutputStream out = new BestGZIPOutputStream(Files.newOutputStream(target.toPath()))) {
+                Files.copy(file.toPath(), out);
+            }
+            originalBytes += file.length();
+            compressedBytes += target.length();
+            compressed.add(path + EXTENSION);
+        }
+        return compressed;
+    }
+
+    /**
+     * @return the size of the files that were compressed
+     */
+    long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    /**
+     * @return the size of the compressed files
+     */
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Gzip output with the best compression: files are compressed once and may be downloaded many times.
+     */
+    private static final class BestGZIPOutputStream extends GZIPOutputStream {
+        BestGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
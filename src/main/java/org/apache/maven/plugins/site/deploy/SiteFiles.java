@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Selection of the files of a site directory to deploy, with Ant-like include and exclude patterns relative to the
+ * directory. A pattern ending with '/' matches the whole subtree.
+ *
+ * @since 3.22.1
+ */
+final class SiteFiles {
+    /**
+     * Every file of the directory.
+     */
+    static final SiteFiles ALL = new SiteFiles(Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    SiteFiles(Collection<String> includes, Collection<String> excludes) {
+        this.includes = normalize(includes);
+        this.excludes = normalize(excludes);
+    }
+
+    private static List<String> normalize(Collection<String> patterns) {
+        List<String> normalized = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            pattern = pattern.trim().replace('\\', '/');
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            normalized.add(pattern.endsWith("/") ? pattern + "**" : pattern);
+        }
+        return normalized;
+    }
+
+    /**
+     * Add exclude patterns.
+     *
+     * @param patterns the patterns to exclude in addition to the ones of this selection
+     * @return the new selection
+     */
+    SiteFiles exclude(Collection<String> patterns) {
+        if (patterns.isEmpty()) {
+            return this;
+        }
+        List<String> allExcludes = new ArrayList<>(excludes);
+        allExcludes.addAll(patterns);
+        return new SiteFiles(includes, allExcludes);
+    }
+
+    /**
+     * @return <code>true</code> if every file is selected
+     */
+    boolean isAll() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * @param path a path relative to the site directory, with '/' separators
+     * @return <code>true</code> if the file is selected
+     */
+    boolean isSelected(String path) {
+        if (!includes.isEmpty() && includes.stream().noneMatch(pattern -> matches(pattern, path))) {
+            return false;
+        }
+        return excludes.stream().noneMatch(pattern -> matches(pattern, path));
+    }
+
+    private static boolean matches(String pattern, String path) {
+        return SelectorUtils.matchPath(pattern, path, "/", true);
+    }
+
+    /**
+     * List the selected files of a local directory.
+     *
+     * @param directory the directory
+     * @return the paths of the files, relative to the directory and with '/' separators
+     * @throws IOException in case of IO issue
+     */
+    List<String> list(File directory) throws IOException {
+        Path root = directory.toPath();
+        List<String> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.filter(Files::isRegularFile).forEach(file -> {
+                String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+                if (isSelected(path)) {
+                    files.add(path);
+                }
+            });
+        }
+        return files;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Checksums of the files of a deployed site, stored next to the site so that a later deployment only uploads
+ * the files whose content changed. The format is the one of <code>sha256sum</code>: one line per file with the
+ * SHA-256 digest and the path relative to the site directory.
+ *
+ * @since 3.22.1
+ */
+final class SiteManifest {
+    /**
+     * Name of the manifest file, at the root of the deployed site directory.
+     */
+    static final String NAME = ".site-manifest.sha256";
+
+    private final Map<String, String> digests = new TreeMap<>();
+
+    /**
+     * Compute the manifest of a local site directory. The manifest file itself, if present, is ignored.
+     *
+     * @param directory the site directory
+     * @param files the files to deploy
+     * @return the manifest of the selected files of the directory
+     * @throws IOException in case of IO issue
+     */
+    static SiteManifest scan(File directory, SiteFiles files) throws IOException {
+        SiteManifest manifest = new SiteManifest();
+        for (String path : files.list(directory)) {
+            if (!NAME.equals(path)) {
+                manifest.digests.put(path, Digests.digest(new File(directory, path)));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Read a manifest file. Lines that aren't in the expected format are ignored, their files will be uploaded.
+     *
+     * @param file the manifest file
+     * @return the manifest
+     * @throws IOException in case of IO issue
+     */
+    static SiteManifest read(File file) throws IOException {
+        SiteManifest manifest = new SiteManifest();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = line.indexOf("  ");
+                if (index > 0) {
+                    manifest.digests.put(line.substring(index + 2), line.substring(0, index));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Write the manifest file.
+     *
+     * @param file the manifest file
+     * @throws IOException in case of IO issue
+     */
+    void write(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : digests.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write("  ");
+                writer.write(entry.getKey());
+                writer.write('\n');
+            }
+        }
+    }
+
+    int size() {
+        return digests.size();
+    }
+
+    /**
+     * Get the files of this manifest that are missing or have another content in a previous manifest.
+     *
+     * @param previous the manifest of the deployed site
+     * @return the paths of the files to upload
+     */
+    List<String> getChanges(SiteManifest previous) {
+        List<String> changes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : digests.entrySet()) {
+            if (!entry.getValue().equals(previous.digests.get(entry.getKey()))) {
+                changes.add(entry.getKey());
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Get the files of a previous manifest that are not part of this manifest anymore. Files that are not deployed
+     * anymore because they are excluded are not considered as stale.
+     *
+     * @param previous the manifest of the deployed site
+     * @param files the files to deploy
+     * @return the paths of the stale files
+     */
+    List<String> getStaleFiles(SiteManifest previous, SiteFiles files) {
+        List<String> stale = new ArrayList<>();
+        for (String path : previous.digests.keySet()) {
+            if (!digests.containsKey(path) && files.isSelected(path)) {
+                stale.add(path);
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Keep track of files of a previous manifest that are still deployed, with their previous digest.
+     *
+     * @param previous the manifest of the deployed site
+     * @param paths the paths of the files to keep
+     */
+    void retain(SiteManifest previous, Collection<String> paths) {
+        for (String path : paths) {
+            digests.put(path, previous.digests.get(path));
+        }
+    }
+
+    /**
+     * Keep track of files of a previous manifest that are still deployed but excluded from this deployment.
+     *
+     * @param previous the manifest of the deployed site
+     * @param files the files to deploy
+     */
+    void retainExcluded(SiteManifest previous, SiteFiles files) {
+        for (Map.Entry<String, String> entry : previous.digests.entrySet()) {
+            if (!files.isSelected(entry.getKey())) {
+                digests.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Resolve a path relative to a destination directory on the remote site.
+     *
+     * @param destination the destination directory, like <code>./</code> or <code>fr/module</code>
+     * @param path the relative path, with '/' separators
+     * @return the resolved path
+     */
+    static String resolve(String destination, String path) {
+        if (destination.endsWith("/./")) {
+            destination = destination.substring(0, destination.length() - 2);
+        }
+        if (destination.isEmpty() || ".".equals(destination) || "./".equals(destination)) {
+            return path;
+        }
+        return destination.endsWith("/") ? destination + path : destination + '/' + path;
+    }
+}
@@ -54,6 +54,21 @@ public class SiteStageMojo extends AbstractStagingMojo {
     @Parameter(property = "stagingDirectory")
     private File stagingDirectory;
 
+    /**
+     * Stage the site with hard links to the generated files instead of copies, which is almost instant and uses no
+     * additional disk space. Files that can't be linked, for example when the staging directory is on another file
+     * system, are copied.
+     * <p>
+     * <b>Warning:</b> a linked file shares its content with the generated one. Generating the site again, or any tool
+     * editing a file of the generated or of the staged site in place, modifies both: only enable this option when the
+     * staged site is not kept as a snapshot, for example when it is deployed right after staging.
+     * </p>
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.stage.links", defaultValue = "false")
+    private boolean linkStaging;
+
     @Override
     public void execute() throws MojoExecutionException {
         if (skip) {
@@ -61,6 +76,9 @@ public class SiteStageMojo extends AbstractStagingMojo {
             return;
         }
 
+        if (linkStaging) {
+            getLog().warn("Staging with hard links: the staged files change when the site is generated again");
+        }
         super.execute();
     }
 
@@ -69,6 +87,11 @@ public class SiteStageMojo extends AbstractStagingMojo {
         return false;
     }
 
+    @Override
+    protected boolean isLinkStaging() {
+        return linkStaging;
+    }
+
     @Override
     protected Site determineDeploySite() throws MojoExecutionException {
         Site staging = new Site();
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.resource.Resource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Wagon transfer listener reporting the progress of uploads: files and bytes uploaded, current throughput and
+ * estimated remaining time, logged at most once per interval. At the end of the deployment, it can log a summary and
+ * write a JSON report of the bytes per directory, the slowest files and the failed attempts, to tell whether the
+ * deployment is bound by the bandwidth or by the latency of each transfer. Failed attempts are reported by the
+ * {@link WagonPool} when it retries a transfer.
+ *
+ * @since 3.22.1
+ */
+final class TransferProgressListener implements TransferListener {
+    private static final int SLOWEST_FILES = 10;
+
+    private final Log log;
+
+    private final long intervalNanos;
+
+    private final LongSupplier clock;
+
+    private final long startNanos;
+
+    private final Map<Resource, long[]> transfers = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> directoryBytes = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> retries = new ConcurrentHashMap<>();
+
+    private final List<Transfer> completed = new ArrayList<>();
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder expectedBytes = new LongAdder();
+
+    private final AtomicInteger expectedFiles = new AtomicInteger();
+
+    private final AtomicLong nextReportNanos;
+
+    private long lastReportNanos;
+
+    private long lastReportBytes;
+
+    /**
+     * A completed upload.
+     */
+    private static final class Transfer {
+        private final String name;
+
+        private final long bytes;
+
+        private final long wallNanos;
+
+        Transfer(String name, long bytes, long wallNanos) {
+            this.name = name;
+            this.bytes = bytes;
+            this.wallNanos = wallNanos;
+        }
+    }
+
+    /**
+     * @param log the log
+     * @param intervalSeconds the interval between progress logs in seconds, <code>0</code> to never log progress
+     */
+    TransferProgressListener(Log log, int intervalSeconds) {
+        this(log, intervalSeconds * 1_000_000_000L, System::nanoTime);
+    }
+
+    TransferProgressListener(Log log, long intervalNanos, LongSupplier clock) {
+        this.log = log;
+        this.intervalNanos = intervalNanos;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        this.lastReportNanos = startNanos;
+        this.nextReportNanos = new AtomicLong(startNanos + intervalNanos);
+    }
+
+    /**
+     * Add files about to be uploaded to the expected totals, to estimate the remaining time.
+     *
+     * @param directory the local directory
+     * @param paths the paths of the files, relative to the directory
+     */
+    void expect(File directory, Collection<String> paths) {
+        for (String path : paths) {
+            expectedBytes.add(new File(directory, path).length());
+        }
+        expectedFiles.addAndGet(paths.size());
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent transferEvent) {
+        // nothing to do
+    }
+
+    @Override
+    public void transferStarted(TransferEvent transferEvent) {
+        if (transferEvent.getRequestType() == TransferEvent.REQUEST_PUT) {
+            transfers.put(transferEvent.getResource(), new long[] {clock.getAsLong(), 0});
+        }
+    }
+
+    @Override
+    public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        long[] transfer = transfers.get(transferEvent.getResource());
+        if (transfer != null) {
+            transfer[1] += length;
+            bytes.add(length);
+            report();
+        }
+    }
+
+    @Override
+    public void transferCompleted(TransferEvent transferEvent) {
+        long[] transfer = transfers.remove(transferEvent.getResource());
+        if (transfer != null) {
+            String name = transferEvent.getResource().getName();
+            directoryBytes.computeIfAbsent(getDirectory(name), k -> new LongAdder()).add(transfer[1]);
+            synchronized (completed) {
+                completed.add(new Transfer(name, transfer[1], clock.getAsLong() - transfer[0]));
+            }
+            report();
+        }
+    }
+
+    @Override
+    public void transferError(TransferEvent transferEvent) {
+        transfers.remove(transferEvent.getResource());
+    }
+
+    /**
+     * Record a failed upload that is retried.
+     *
+     * @param resource the name of the resource
+     */
+    void retried(String resource) {
+        retries.computeIfAbsent(resource, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    @Override
+    public void debug(String message) {
+        // nothing to do
+    }
+
+    /**
+     * @return the count of completed uploads
+     */
+    int getFiles() {
+        synchronized (completed) {
+            return completed.size();
+        }
+    }
+
+    /**
+     * @return the bytes uploaded, including the ones of failed attempts
+     */
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    private void report() {
+        long now = clock.getAsLong();
+        long next = nextReportNanos.get();
+        if (intervalNanos <= 0 || now < next || !nextReportNanos.compareAndSet(next, now + intervalNanos)) {
+            return;
+        }
+
+        int files = getFiles();
+        long uploaded = bytes.sum();
+        long expected = expectedBytes.sum();
+        long throughput;
+        synchronized (this) {
+            throughput = getBytesPerSecond(uploaded - lastReportBytes, now - lastReportNanos);
+            lastReportNanos = now;
+            lastReportBytes = uploaded;
+        }
+
+        StringBuilder sb = new StringBuilder("Uploaded ").append(files);
+        if (expectedFiles.get() > 0 && expectedFiles.get() >= files) {
+            sb.append('/').append(expectedFiles.get());
+        }
+        sb.append(" files, ").append(formatBytes(uploaded));
+        if (expected > 0 && expected >= uploaded) {
+            sb.append('/').append(formatBytes(expected));
+        }
+        sb.append(", ").append(formatBytes(throughput)).append("/s");
+        if (expected > uploaded && throughput > 0) {
+            sb.append(", ETA ").append((expected - uploaded + throughput - 1) / throughput).append(" s");
+        }
+        log.info(sb.toString());
+    }
+
+    /**
+     * Log the totals of the deployment: files, bytes, throughput and average time per file.
+     */
+    void logSummary() {
+        int files = getFiles();
+        if (files == 0) {
+            return;
+        }
+        long wallNanos = clock.getAsLong() - startNanos;
+        // CHECKSTYLE_OFF: MagicNumber
+        log.info(String.format(
+                Locale.ROOT,
+                "Uploaded %d files, %s in %.1f s (%s/s, %.1f ms per file, %d failed attempts)",
+                files,
+                formatBytes(bytes.sum()),
+                wallNanos / 1_000_000_000.0,
+                formatBytes(getBytesPerSecond(bytes.sum(), wallNanos)),
+                getAverageFileNanos() / 1_000_000.0,
+                getRetries()));
+        // CHECKSTYLE_ON: MagicNumber
+    }
+
+    /**
+     * Write the report of the deployment as JSON.
+     *
+     * @param file the output file
+     * @throws IOException in case of IO issue
+     */
+    void write(File file) throws IOException {
+        List<Transfer> transfers;
+        synchronized (completed) {
+            transfers = new ArrayList<>(completed);
+        }
+        transfers.sort(Comparator.comparingLong((Transfer transfer) -> transfer.wallNanos).reversed());
+        long wallNanos = clock.getAsLong() - startNanos;
+
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), UTF_8)) {
+            writer.write("{\n  \"files\": " + transfers.size() + ",\n  \"bytes\": " + bytes.sum()
+                    + ",\n  \"wallNanos\": " + wallNanos + ",\n  \"bytesPerSecond\": "
+                    + getBytesPerSecond(bytes.sum(), wallNanos) + ",\n  \"averageFileNanos\": "
+                    + getAverageFileNanos() + ",\n  \"retries\": " + getRetries() + ",\n  \"directories\": {");
+            String separator = "\n";
+            for (Map.Entry<String, LongAdder> directory : new TreeMap<>(directoryBytes).entrySet()) {
+                writer.write(separator + "    " + BuildProfiler.quote(directory.getKey()) + ": "
+                        + directory.getValue().sum());
+                separator = ",\n";
+            }
+            writer.write("\n  },\n  \"slowestFiles\": [");
+            separator = "\n";
+            for (Transfer transfer : transfers.subList(0, Math.min(SLOWEST_FILES, transfers.size()))) {
+                writer.write(separator + "    {\"name\": " + BuildProfiler.quote(transfer.name) + ", \"bytes\": "
+                        + transfer.bytes + ", \"wallNanos\": " + transfer.wallNanos + '}');
+                separator = ",\n";
+            }
+            writer.write("\n  ],\n  \"retriedFiles\": [");
+            separator = "\n";
+            for (Map.Entry<String, AtomicInteger> retry : new TreeMap<>(retries).entrySet()) {
+                writer.write(separator + "    {\"name\": " + BuildProfiler.quote(retry.getKey()) + ", \"retries\": "
+                        + retry.getValue().get() + '}');
+                separator = ",\n";
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    /**
+     * @return the count of failed uploads that were retried
+     */
+    int getRetries() {
+        int count = 0;
+        for (AtomicInteger retry : retries.values()) {
+            count += retry.get();
+        }
+        return count;
+    }
+
+    private long getAverageFileNanos() {
+        synchronized (completed) {
+            long total = 0;
+            for (Transfer transfer : completed) {
+                total += transfer.wallNanos;
+            }
+            return completed.isEmpty() ? 0 : total / completed.size();
+        }
+    }
+
+    private static long getBytesPerSecond(long bytes, long nanos) {
+        // CHECKSTYLE_OFF: MagicNumber
+        return (nanos <= 0) ? 0 : (long) (bytes * 1_000_000_000.0 / nanos);
+        // CHECKSTYLE_ON: MagicNumber
+    }
+
+    static String getDirectory(String name) {
+        String path = name.replace('\\', '/');
+        int index = path.lastIndexOf('/');
+        return (index < 0) ? "." : path.substring(0, index);
+    }
+
+    static String formatBytes(long bytes) {
+        // CHECKSTYLE_OFF: MagicNumber
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f kB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+        // CHECKSTYLE_ON: MagicNumber
+    }
+}
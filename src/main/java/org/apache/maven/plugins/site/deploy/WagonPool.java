@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.site.Digests;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.authorization.AuthorizationException;
+
+/**
+ * Connected wagons to the same repository, kept open for the whole deployment to upload files concurrently:
+ * each connection takes the next file to upload until every file is uploaded, so that round trips of one connection
+ * overlap the ones of the others. Failed transfers are retried with an exponential backoff, and completed transfers
+ * can be recorded in a {@link DeployJournal} to resume a failed deployment.
+ *
+ * @since 3.22.1
+ */
+final class WagonPool {
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    /**
+     * Delay before the first retry of a failed transfer, doubled for each following retry.
+     */
+    private static final long RETRY_DELAY = 1000;
+
+    private final List<Wagon> wagons;
+
+    private final int retries;
+
+    private final DeployJournal journal;
+
+    private final Log log;
+
+    private long retryDelay = RETRY_DELAY;
+
+    private TransferProgressListener progressListener;
+
+    /**
+     * @param wagons the connected wagons, not empty
+     * @param retries the number of times a failed transfer is retried
+     * @param journal the journal of the transfers, or <code>null</code>
+     * @param log the log
+     */
+    WagonPool(List<Wagon> wagons, int retries, DeployJournal journal, Log log) {
+        this.wagons = wagons;
+        this.retries = retries;
+        this.journal = journal;
+        this.log = log;
+    }
+
+    void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * @param progressListener the listener told about retried transfers, or <code>null</code>
+     */
+    void setProgressListener(TransferProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    List<Wagon> getWagons() {
+        return wagons;
+    }
+
+    /**
+     * Upload files of a local directory.
+     *
+     * @param directory the local directory
+     * @param destination the destination directory on the repository
+     * @param paths the paths of the files to upload, relative to both directories
+     * @throws TransferFailedException if an upload fails
+     * @throws ResourceDoesNotExistException if a destination doesn't exist
+     * @throws AuthorizationException if an upload isn't authorized
+     */
+    void put(File directory, String destination, Collection<String> paths)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        if (wagons.size() == 1 || paths.size() <= 1) {
+            for (String path : paths) {
+                put(wagons.get(0), directory, destination, path);
+            }
+            return;
+        }
+
+        Queue<String> queue = new ConcurrentLinkedQueue<>(paths);
+        AtomicBoolean failed = new AtomicBoolean();
+        int threads = Math.min(wagons.size(), paths.size());
+        String poolName = "site-deploy-" + POOL_COUNT.incrementAndGet() + '-';
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, poolName + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Wagon wagon = wagons.get(i);
+                futures.add(executor.submit(() -> {
+                    String path;
+                    while (!failed.get() && (path = queue.poll()) != null) {
+                        try {
+                            put(wagon, directory, destination, path);
+                        } catch (Exception e) {
+                            // let the other connections stop early
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof TransferFailedException) {
+                        throw (TransferFailedException) cause;
+                    } else if (cause instanceof ResourceDoesNotExistException) {
+                        throw (ResourceDoesNotExistException) cause;
+                    } else if (cause instanceof AuthorizationException) {
+                        throw (AuthorizationException) cause;
+                    }
+                    throw new TransferFailedException("Error uploading to " + destination, cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferFailedException("Interrupted while uploading to " + destination, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void put(Wagon wagon, File directory, String destination, String path)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        File file = new File(directory, path);
+        String resource = SiteManifest.resolve(destination, path);
+        String digest = null;
+        if (journal != null) {
+            try {
+                digest = Digests.digest(file);
+            } catch (IOException e) {
+                throw new TransferFailedException("Error reading " + file, e);
+            }
+            if (journal.isTransferred(resource, digest)) {
+                return;
+            }
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                wagon.put(file, resource);
+                break;
+            } catch (TransferFailedException e) {
+                if (attempt >= retries) {
+                    throw e;
+                }
+                if (progressListener != null) {
+                    progressListener.retried(resource);
+                }
+                long delay = retryDelay << attempt;
+                log.warn("Error uploading " + resource + ", retrying in " + delay + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+
+        if (journal != null) {
+            try {
+                journal.transferred(resource, digest);
+            } catch (IOException e) {
+                throw new TransferFailedException("Error writing the deployment journal", e);
+            }
+        }
+    }
+}
@@ -85,7 +85,7 @@ public abstract class AbstractSiteDescriptorMojo extends AbstractSiteMojo {
      * @since 2.3
      */
     @Parameter(property = "relativizeSiteLinks", defaultValue = "true")
-    private boolean relativizeSiteLinks;
+    protected boolean relativizeSiteLinks;
 
     /**
      * The component for assembling site model inheritance.
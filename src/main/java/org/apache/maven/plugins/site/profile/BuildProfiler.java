@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.profile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.logging.Log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Records the wall time, CPU time and allocated bytes of the steps of a site build: rendering of each document,
+ * resources copy, upload of each file. CPU time and allocated bytes are measured on the thread running the step,
+ * and are <code>-1</code> when the JVM can't measure them.
+ * <p>
+ * Steps are usually recorded with {@link #record(String, String, Step)}; when the end of a step is notified by a
+ * callback, like a transfer listener, use {@link #start()} and {@link #record(String, String, Sample)} on the same
+ * thread.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+public class BuildProfiler {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * A step to profile.
+     *
+     * @param <E> the exception thrown by the step
+     */
+    @FunctionalInterface
+    public interface Step<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Measures of the current thread at the start of a step.
+     */
+    public static final class Sample {
+        private final long wallNanos;
+
+        private final long cpuNanos;
+
+        private final long allocatedBytes;
+
+        private Sample() {
+            this.wallNanos = System.nanoTime();
+            this.cpuNanos = getCurrentThreadCpuTime();
+            this.allocatedBytes = getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * A recorded step.
+     */
+    public static final class Entry {
+        private final String category;
+
+        private final String name;
+
+        private final String thread;
+
+        private final long wallNanos;
+
+        private final long cpuNanos;
+
+        private final long allocatedBytes;
+
+        Entry(String category, String name, String thread, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.category = category;
+            this.name = name;
+            this.thread = thread;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * @return the CPU time of the thread running the step, or <code>-1</code> if not measured
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        /**
+         * @return the bytes allocated by the thread running the step, or <code>-1</code> if not measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * Start measuring a step on the current thread.
+     *
+     * @return the measures at the start of the step
+     */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /**
+     * Record a step started with {@link #start()} on the current thread.
+     *
+     * @param category the category of the step, for example <code>report</code>
+     * @param name the name of the step, for example the output file
+     * @param start the measures at the start of the step
+     */
+    public void record(String category, String name, Sample start) {
+        long wallNanos = System.nanoTime() - start.wallNanos;
+        long cpuNanos = getCurrentThreadCpuTime();
+        long allocatedBytes = getCurrentThreadAllocatedBytes();
+        Entry entry = new Entry(
+                category,
+                name,
+                Thread.currentThread().getName(),
+                wallNanos,
+                (cpuNanos < 0 || start.cpuNanos < 0) ? -1 : cpuNanos - start.cpuNanos,
+                (allocatedBytes < 0 || start.allocatedBytes < 0) ? -1 : allocatedBytes - start.allocatedBytes);
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Run a step and record it, even if it fails.
+     *
+     * @param category the category of the step
+     * @param name the name of the step
+     * @param step the step
+     * @param <E> the exception thrown by the step
+     * @throws E if the step fails
+     */
+    public <E extends Exception> void record(String category, String name, Step<E> step) throws E {
+        Sample start = start();
+        try {
+            step.run();
+        } finally {
+            record(category, name, start);
+        }
+    }
+
+    /**
+     * @return the recorded steps, in recording order
+     */
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    /**
+     * Write the recorded steps and their totals per category as JSON.
+     *
+     * @param file the output file
+     * @param goal the goal that was profiled
+     * @throws IOException in case of IO issue
+     */
+    public void write(File file, String goal) throws IOException {
+        List<Entry> entries = getEntries();
+
+        Map<String, long[]> totals = new TreeMap<>();
+        for (Entry entry : entries) {
+            long[] total = totals.computeIfAbsent(entry.getCategory(), k -> new long[4]);
+            total[0]++;
+            total[1] += entry.getWallNanos();
+            total[2] += Math.max(0, entry.getCpuNanos());
+            total[3] += Math.max(0, entry.getAllocatedBytes());
+        }
+
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), UTF_8)) {
+            writer.write("{\n  \"goal\": " + quote(goal) + ",\n  \"totals\": {");
+            String separator = "\n";
+            for (Map.Entry<String, long[]> total : totals.entrySet()) {
+                long[] values = total.getValue();
+                writer.write(separator + "    " + quote(total.getKey()) + ": {\"count\": " + values[0]
+                        + ", \"wallNanos\": " + values[1] + ", \"cpuNanos\": " + values[2] + ", \"allocatedBytes\": "
+                        + values[3] + '}');
+                separator = ",\n";
+            }
+            writer.write("\n  },\n  \"entries\": [");
+            separator = "\n";
+            for (Entry entry : entries) {
+                writer.write(separator + "    {\"category\": " + quote(entry.getCategory()) + ", \"name\": "
+                        + quote(entry.getName()) + ", \"thread\": " + quote(entry.getThread()) + ", \"wallNanos\": "
+                        + entry.getWallNanos() + ", \"cpuNanos\": " + entry.getCpuNanos() + ", \"allocatedBytes\": "
+                        + entry.getAllocatedBytes() + '}');
+                separator = ",\n";
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    /**
+     * Log the slowest recorded steps.
+     *
+     * @param log the log
+     * @param count the maximum count of steps to log
+     */
+    public void logSummary(Log log, int count) {
+        List<Entry> entries = getEntries();
+        if (entries.isEmpty() || count <= 0) {
+            return;
+        }
+        Collections.sort(entries, Comparator.comparingLong(Entry::getWallNanos).reversed());
+
+        log.info("Slowest steps:");
+        for (Entry entry : entries.subList(0, Math.min(count, entries.size()))) {
+            StringBuilder sb = new StringBuilder("  ");
+            sb.append(formatMillis(entry.getWallNanos())).append(" wall");
+            if (entry.getCpuNanos() >= 0) {
+                sb.append(", ").append(formatMillis(entry.getCpuNanos())).append(" CPU");
+            }
+            if (entry.getAllocatedBytes() >= 0) {
+                // CHECKSTYLE_OFF: MagicNumber
+                sb.append(", ")
+                        .append(String.format(Locale.ROOT, "%.1f MB", entry.getAllocatedBytes() / (1024.0 * 1024)))
+                        .append(" allocated");
+                // CHECKSTYLE_ON: MagicNumber
+            }
+            sb.append(" - ").append(entry.getCategory()).append(' ').append(entry.getName());
+            log.info(sb.toString());
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        // CHECKSTYLE_OFF: MagicNumber
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+        // CHECKSTYLE_ON: MagicNumber
+    }
+
+    /**
+     * Quote a value as a JSON string.
+     *
+     * @param value the value, may be <code>null</code>
+     * @return the JSON string, or <code>null</code>
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static long getCurrentThreadCpuTime() {
+        try {
+            return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        try {
+            return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()
+                    ? threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId())
+                    : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+}
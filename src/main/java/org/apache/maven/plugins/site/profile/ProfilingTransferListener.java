@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.profile;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Wagon transfer listener recording every transfer in a {@link BuildProfiler}, in the <code>transfer</code> category.
+ *
+ * @since 3.22.1
+ */
+public class ProfilingTransferListener implements TransferListener {
+    private final BuildProfiler profiler;
+
+    private final Map<Resource, BuildProfiler.Sample> transfers = new ConcurrentHashMap<>();
+
+    public ProfilingTransferListener(BuildProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent transferEvent) {
+        // nothing to do
+    }
+
+    @Override
+    public void transferStarted(TransferEvent transferEvent) {
+        transfers.put(transferEvent.getResource(), profiler.start());
+    }
+
+    @Override
+    public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        // nothing to do
+    }
+
+    @Override
+    public void transferCompleted(TransferEvent transferEvent) {
+        record(transferEvent, "");
+    }
+
+    @Override
+    public void transferError(TransferEvent transferEvent) {
+        record(transferEvent, " (failed)");
+    }
+
+    private void record(TransferEvent transferEvent, String suffix) {
+        BuildProfiler.Sample start = transfers.remove(transferEvent.getResource());
+        if (start != null) {
+            profiler.record("transfer", transferEvent.getResource().getName() + suffix, start);
+        }
+    }
+
+    @Override
+    public void debug(String message) {
+        // nothing to do
+    }
+}
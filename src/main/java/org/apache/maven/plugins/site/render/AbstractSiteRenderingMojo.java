@@ -18,9 +18,16 @@
  */
 package org.apache.maven.plugins.site.render;
 
+import javax.inject.Inject;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -30,12 +37,19 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.doxia.site.Menu;
 import org.apache.maven.doxia.site.MenuItem;
 import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.site.Skin;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
 import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
@@ -45,19 +59,31 @@ import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
 import org.apache.maven.doxia.tools.SiteTool;
 import org.apache.maven.doxia.tools.SiteToolException;
+import org.apache.maven.model.Plugin;
 import org.apache.maven.model.ReportPlugin;
 import org.apache.maven.model.Reporting;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.InvalidPluginDescriptorException;
+import org.apache.maven.plugin.MavenPluginManager;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.MojoNotFoundException;
+import org.apache.maven.plugin.PluginDescriptorParsingException;
+import org.apache.maven.plugin.PluginResolutionException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.site.Digests;
 import org.apache.maven.plugins.site.descriptor.AbstractSiteDescriptorMojo;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReport;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.reporting.exec.MavenReportExecution;
 import org.apache.maven.reporting.exec.MavenReportExecutor;
 import org.apache.maven.reporting.exec.MavenReportExecutorRequest;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Base class for site rendering mojos.
  *
@@ -170,6 +196,28 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
     @Parameter(defaultValue = "${project.build.outputTimestamp}")
     protected String outputTimestamp;
 
+    /**
+     * Number of threads used to ask reports whether they can be generated, since some reports scan the whole project
+     * to decide, or even run their analysis. With the default value of <code>1</code>, reports are asked one after the
+     * other. Whatever the value, reports are asked once: their answers are reused for the next locales.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "reportCheckThreads", defaultValue = "1")
+    private int reportCheckThreads;
+
+    /**
+     * Reports that must not be generated concurrently with other reports, by <code>site</code> with
+     * <code>reportThreads</code> or <code>localeThreads</code> greater than <code>1</code> or by <code>run</code> for
+     * concurrent requests, even if their plugin declares them thread-safe. Each entry is either a plugin artifactId, for
+     * all the reports of the plugin, or <code>artifactId:goal</code>, for example
+     * <code>maven-javadoc-plugin:javadoc</code>.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "notThreadSafeReports")
+    private List<String> notThreadSafeReports;
+
     /**
      * Site renderer.
      */
@@ -177,13 +225,50 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
     protected final MavenReportExecutor mavenReportExecutor;
 
+    /**
+     * Plugin manager, used to check whether reports are thread-safe, or <code>null</code> if reports are never
+     * generated concurrently.
+     */
+    protected final MavenPluginManager mavenPluginManager;
+
+    /**
+     * Effective report plugins, computed once since they don't depend on the locale.
+     */
+    private ReportPlugin[] reportingPlugins;
+
+    /**
+     * Answers of the reports asked whether they can be generated, which don't depend on the locale.
+     */
+    private final Map<String, Boolean> checkedReports = new ConcurrentHashMap<>();
+
+    /**
+     * Skins and site models already prepared in the Maven session.
+     */
+    @Inject
+    private SiteRenderingCache siteRenderingCache;
+
+    /**
+     * Locks on Doxia parsers, shared by the site rendering mojos of the Maven session.
+     */
+    @Inject
+    private ParserLocks parserLocks;
+
     protected AbstractSiteRenderingMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
             MavenReportExecutor mavenReportExecutor) {
+        this(assembler, siteRenderer, mavenReportExecutor, null);
+    }
+
+    protected AbstractSiteRenderingMojo(
+            SiteModelInheritanceAssembler assembler,
+            SiteRenderer siteRenderer,
+            MavenReportExecutor mavenReportExecutor,
+            MavenPluginManager mavenPluginManager) {
         super(assembler);
         this.siteRenderer = siteRenderer;
         this.mavenReportExecutor = mavenReportExecutor;
+        this.mavenPluginManager = mavenPluginManager;
     }
 
     /**
@@ -231,25 +316,135 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
         List<MavenReportExecution> allReports = mavenReportExecutor.buildMavenReports(mavenReportExecutorRequest);
 
+        List<MavenReportExecution> candidates = new ArrayList<>(allReports.size());
+        for (MavenReportExecution exec : allReports) {
+            exec.getMavenReport().setReportOutputDirectory(outputDirectory);
+            if (!checkedReports.containsKey(getCheckKey(exec))) {
+                candidates.add(exec);
+            }
+        }
+
+        // ask only the reports that were not asked for a previous locale
+        List<Boolean> canGenerate = checkReports(candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            checkedReports.put(getCheckKey(candidates.get(i)), canGenerate.get(i));
+        }
+
         // filter out reports that can't be generated
         List<MavenReportExecution> reportExecutions = new ArrayList<>(allReports.size());
         for (MavenReportExecution exec : allReports) {
-            String reportMojoInfo = exec.getPlugin().getId() + ":" + exec.getGoal();
-            exec.getMavenReport().setReportOutputDirectory(outputDirectory);
-            try {
-                if (exec.canGenerateReport()) {
-                    reportExecutions.add(exec);
-                } else if (exec.isUserDefined()) {
-                    getLog().info("Skipping " + reportMojoInfo + " report");
-                }
-            } catch (MavenReportException e) {
-                throw new MojoExecutionException(
-                        "Failed to determine whether report '" + reportMojoInfo + "' can be generated", e);
+            if (checkedReports.get(getCheckKey(exec))) {
+                reportExecutions.add(exec);
+            } else if (exec.isUserDefined()) {
+                getLog().info("Skipping " + exec.getPlugin().getId() + ":" + exec.getGoal() + " report");
             }
         }
         return reportExecutions;
     }
 
+    private static String getCheckKey(MavenReportExecution exec) {
+        return exec.getPlugin().getId() + ':' + exec.getGoal() + ':' + exec.getMavenReport().getOutputName();
+    }
+
+    /**
+     * Ask reports whether they can be generated, concurrently if {@link #reportCheckThreads} is greater than
+     * <code>1</code>.
+     *
+     * @param reports the reports
+     * @return the answers, in the order of the reports
+     * @throws MojoExecutionException if a report fails to answer
+     */
+    private List<Boolean> checkReports(List<MavenReportExecution> reports) throws MojoExecutionException {
+        List<Boolean> canGenerate = new ArrayList<>(reports.size());
+        if (reportCheckThreads <= 1 || reports.size() <= 1) {
+            for (MavenReportExecution exec : reports) {
+                canGenerate.add(canGenerateReport(exec));
+            }
+            return canGenerate;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(reportCheckThreads, reports.size()), ParallelDocumentRenderer.newThreadFactory("site-check"));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(reports.size());
+            for (MavenReportExecution exec : reports) {
+                futures.add(executor.submit(() -> canGenerateReport(exec)));
+            }
+
+            for (Future<Boolean> future : futures) {
+                try {
+                    canGenerate.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof MojoExecutionException) {
+                        throw (MojoExecutionException) e.getCause();
+                    }
+                    throw new MojoExecutionException("Failed to check reports", e.getCause());
+                }
+            }
+            return canGenerate;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while checking reports", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean canGenerateReport(MavenReportExecution exec) throws MojoExecutionException {
+        try {
+            return exec.canGenerateReport();
+        } catch (MavenReportException e) {
+            throw new MojoExecutionException(
+                    "Failed to determine whether report '" + exec.getPlugin().getId() + ":" + exec.getGoal()
+                            + "' can be generated",
+                    e);
+        }
+    }
+
+    /**
+     * Check if a report can be generated concurrently with other reports: it must not be listed in
+     * {@link #notThreadSafeReports} and its goal must be declared thread-safe by its plugin.
+     *
+     * @param exec the report execution
+     * @return <code>true</code> if the report can be generated concurrently
+     */
+    protected boolean isThreadSafe(MavenReportExecution exec) {
+        if (exec.getGoal() == null || mavenPluginManager == null) {
+            return false;
+        }
+
+        Plugin plugin = exec.getPlugin();
+        if (matches(notThreadSafeReports, exec)) {
+            getLog().debug("Report " + plugin.getArtifactId() + ':' + exec.getGoal() + " configured as not thread-safe");
+            return false;
+        }
+
+        try {
+            MojoDescriptor mojoDescriptor = mavenPluginManager.getMojoDescriptor(
+                    plugin, exec.getGoal(), project.getRemotePluginRepositories(), repoSession);
+            return mojoDescriptor.isThreadSafe();
+        } catch (MojoNotFoundException
+                | PluginResolutionException
+                | PluginDescriptorParsingException
+                | InvalidPluginDescriptorException e) {
+            getLog().debug("Unable to get descriptor of report " + plugin.getId() + ':' + exec.getGoal()
+                    + ", generating it sequentially", e);
+            return false;
+        }
+    }
+
+    /**
+     * Check if a report is listed, either by its plugin artifactId or by <code>artifactId:goal</code>.
+     *
+     * @param reports the list of reports, may be <code>null</code>
+     * @param exec the report execution
+     * @return <code>true</code> if the report is listed
+     */
+    protected static boolean matches(List<String> reports, MavenReportExecution exec) {
+        String artifactId = exec.getPlugin().getArtifactId();
+        return reports != null && (reports.contains(artifactId) || reports.contains(artifactId + ':' + exec.getGoal()));
+    }
+
     /**
      * Get the report plugins from reporting section, adding if necessary (i.e. not excluded)
      * default reports (i.e. maven-project-info-reports)
@@ -257,7 +452,14 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
      * @return the effective list of reports
      * @since 3.7.1
      */
-    private ReportPlugin[] getReportingPlugins() {
+    private synchronized ReportPlugin[] getReportingPlugins() {
+        if (this.reportingPlugins == null) {
+            this.reportingPlugins = buildReportingPlugins();
+        }
+        return this.reportingPlugins;
+    }
+
+    private ReportPlugin[] buildReportingPlugins() {
         List<ReportPlugin> reportingPlugins = reporting.getPlugins();
 
         // MSITE-806: add default report plugin like done in maven-model-builder DefaultReportingConverter
@@ -280,7 +482,7 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
     protected SiteRenderingContext createSiteRenderingContext(Locale locale)
             throws MojoExecutionException, IOException, MojoFailureException {
-        SiteModel siteModel = prepareSiteModel(locale);
+        SiteModel siteModel = getSiteModel(locale);
         Map<String, Object> templateProperties = new HashMap<>();
         templateProperties.put("project", project);
         templateProperties.put("inputEncoding", getInputEncoding());
@@ -312,11 +514,10 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
         SiteRenderingContext context;
         try {
-            Artifact skinArtifact =
-                    siteTool.getSkinArtifactFromRepository(repoSession, remoteProjectRepositories, siteModel.getSkin());
+            Artifact skinArtifact = getSkinArtifact(siteModel.getSkin());
 
-            context = siteRenderer.createContextForSkin(
-                    skinArtifact, templateProperties, siteModel, project.getName(), locale);
+            context = siteRenderingCache.createContextForSkin(
+                    siteRenderer, skinArtifact, templateProperties, siteModel, project.getName(), locale);
         } catch (SiteToolException e) {
             throw new MojoExecutionException("Failed to retrieve skin artifact from repository", e);
         } catch (RendererException e) {
@@ -361,6 +562,96 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
         return context;
     }
 
+    /**
+     * Resolve the skin artifact from the repository, once per skin in the Maven session.
+     *
+     * @param skin the skin declared in the site model
+     * @return the resolved skin artifact
+     * @throws SiteToolException if the skin can't be resolved
+     * @since 3.22.1
+     */
+    protected Artifact getSkinArtifact(Skin skin) throws SiteToolException {
+        Artifact skinArtifact = siteRenderingCache.getSkinArtifact(skin);
+        if (skinArtifact == null) {
+            skinArtifact = siteTool.getSkinArtifactFromRepository(repoSession, remoteProjectRepositories, skin);
+            siteRenderingCache.putSkinArtifact(skin, skinArtifact);
+        }
+        return skinArtifact;
+    }
+
+    /**
+     * Get the locks on Doxia parsers, to render documents concurrently.
+     *
+     * @param concurrent <code>true</code> if the mojo renders documents concurrently
+     * @return the locks shared by the site rendering mojos of the Maven session, or <code>null</code> if no document
+     *         can be rendered concurrently with another one
+     * @since 3.22.1
+     */
+    protected ParserLocks getParserLocks(boolean concurrent) {
+        return (concurrent || mavenSession.isParallel()) ? parserLocks : null;
+    }
+
+    /**
+     * Get the site model for a locale, prepared only once in the Maven session for the same inputs: the locale, the
+     * site descriptors of the project and of its local parents with their timestamps, and the models the descriptors
+     * are interpolated with and inherited from. The site model is not cached if the site directory is outside of the
+     * project base directory.
+     *
+     * @param locale the locale
+     * @return the site model, that can be modified by the caller
+     * @throws MojoExecutionException if the site model can't be built
+     * @since 3.22.1
+     */
+    protected SiteModel getSiteModel(Locale locale) throws MojoExecutionException {
+        // the site tool reads the descriptors of local parents at the same relative path as the project's
+        Path siteRelativePath = project.getBasedir()
+                .toPath()
+                .toAbsolutePath()
+                .normalize()
+                .relativize(siteDirectory.toPath().toAbsolutePath().normalize());
+        if (siteRelativePath.startsWith("..")) {
+            return prepareSiteModel(locale);
+        }
+
+        MessageDigest digest = Digests.newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(NullOutputStream.INSTANCE, digest), UTF_8)) {
+            writer.write(locale + "|" + relativizeSiteLinks + '\n');
+            appendSiteDescriptors(writer, siteDirectory, locale);
+            new MavenXpp3Writer().write(writer, project.getModel());
+            for (MavenProject reactorProject : reactorProjects) {
+                // the modules menu
+                if (project.equals(reactorProject.getParent())) {
+                    writer.write(reactorProject.getName() + '|' + reactorProject.getUrl() + '\n');
+                }
+            }
+            for (MavenProject parent = project.getParent(); parent != null; parent = parent.getParent()) {
+                // the site descriptor of a parent without base directory comes from the repository
+                if (parent.getBasedir() != null) {
+                    appendSiteDescriptors(
+                            writer, parent.getBasedir().toPath().resolve(siteRelativePath).toFile(), locale);
+                }
+                new MavenXpp3Writer().write(writer, parent.getModel());
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error computing the key of the site model", e);
+        }
+
+        String key = Digests.toHex(digest.digest());
+        SiteModel siteModel = siteRenderingCache.getSiteModel(key);
+        if (siteModel == null) {
+            siteModel = prepareSiteModel(locale);
+            siteRenderingCache.putSiteModel(key, siteModel);
+        }
+        return siteModel;
+    }
+
+    private static void appendSiteDescriptors(Writer writer, File directory, Locale locale) throws IOException {
+        for (String name : new String[] {"site.xml", "site_" + locale.getLanguage() + ".xml", "site_" + locale + ".xml"}) {
+            File descriptor = new File(directory, name);
+            writer.write(descriptor.getPath() + ':' + descriptor.lastModified() + ':' + descriptor.length() + '\n');
+        }
+    }
+
     /**
      * Go through the list of reports and process each one like this:
      * <ul>
@@ -19,19 +19,25 @@
 package org.apache.maven.plugins.site.render;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.io.monitor.FileAlterationListener;
-import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.apache.commons.io.monitor.FileAlterationObserver;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
 import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
@@ -44,10 +50,15 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.plugins.site.run.LiveReloadServlet;
 import org.apache.maven.reporting.exec.MavenReportExecution;
 import org.apache.maven.reporting.exec.MavenReportExecutor;
 import org.codehaus.plexus.components.interactivity.Prompter;
 import org.codehaus.plexus.components.interactivity.PrompterException;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
 
 /**
  * Renders the site once completely and then watches for Doxia source file changes.
@@ -61,6 +72,10 @@ import org.codehaus.plexus.components.interactivity.PrompterException;
  */
 @Mojo(name = "auto-refresh", requiresDependencyResolution = ResolutionScope.TEST, threadSafe = true, aggregator = true)
 public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
+    /**
+     * Time in milliseconds without file system events that ends a batch of changes.
+     */
+    private static final long QUIET_PERIOD = 200;
 
     /**
      * Directory where the project sites and report distributions will be generated (as html/css/...).
@@ -69,7 +84,7 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
     protected File outputDirectory;
 
     /**
-     * Polling interval in milliseconds for watching file changes.
+     * Polling interval in milliseconds for watching file changes, where native file system events are not available.
      */
     @Parameter(property = "auto-refresh.interval", defaultValue = "1000")
     private long pollingInterval;
@@ -80,6 +95,18 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
     @Parameter(property = "generateReports", defaultValue = "true")
     private boolean generateReports;
 
+    /**
+     * Port of a server serving the rendered site with live reload, <code>0</code> to disable live reload. The HTML
+     * pages browsed from <code>http://localhost:&lt;port&gt;/</code> reload themselves once rendered again, through a
+     * server-sent events endpoint and a script injected in the served pages: the rendered files are left untouched.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "auto-refresh.liveReloadPort", defaultValue = "0")
+    private int liveReloadPort;
+
+    private LiveReloadServlet liveReloadServlet;
+
     @Inject
     public AutoRefreshMojo(
             SiteModelInheritanceAssembler assembler,
@@ -115,41 +142,17 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
             }
 
             // Set up file watching
-            FileAlterationMonitor monitor = new FileAlterationMonitor(pollingInterval);
-
-            FileAlterationListener listener = new FileAlterationListenerAdaptor() {
-                @Override
-                public void onFileChange(File file) {
-                    triggerRerender(file, localesList);
-                }
-
-                @Override
-                public void onFileCreate(File file) {
-                    triggerRerender(file, localesList);
-                }
-
-                @Override
-                public void onFileDelete(File file) {
-                    handleDeletion(file, localesList);
-                }
-            };
+            List<File> directories = new ArrayList<>();
 
             // Watch siteDirectory
             if (siteDirectory != null && siteDirectory.isDirectory()) {
-                FileAlterationObserver observer =
-                        FileAlterationObserver.builder().setFile(siteDirectory).get();
-                observer.addListener(listener);
-                monitor.addObserver(observer);
+                directories.add(siteDirectory);
                 getLog().info("Watching for changes in " + siteDirectory);
             }
 
             // Watch generatedSiteDirectory
             if (generatedSiteDirectory != null && generatedSiteDirectory.isDirectory()) {
-                FileAlterationObserver observer = FileAlterationObserver.builder()
-                        .setFile(generatedSiteDirectory)
-                        .get();
-                observer.addListener(listener);
-                monitor.addObserver(observer);
+                directories.add(generatedSiteDirectory);
                 getLog().info("Watching for changes in \"" + generatedSiteDirectory + "\"");
             }
 
@@ -157,16 +160,30 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
                 getLog().info(
                                 "Auto-refresh: non-interactive mode detected, skipping file watching after initial render.");
             } else {
-                monitor.start();
-                getLog().info("Auto-refresh is active. Press Enter to stop...");
-
-                try {
-                    prompter.prompt(System.lineSeparator());
-                } catch (PrompterException e) {
-                    throw new MojoExecutionException("Error waiting for user input", e);
+                Server liveReloadServer = startLiveReload();
+                DirectoryWatcher.Listener listener = (changed, deleted) -> {
+                    for (File file : deleted) {
+                        handleDeletion(file, localesList);
+                    }
+                    if (!changed.isEmpty()) {
+                        triggerRerender(changed, localesList);
+                    }
+                };
+                try (DirectoryWatcher watcher =
+                        new DirectoryWatcher(directories, QUIET_PERIOD, pollingInterval, listener, getLog())) {
+                    watcher.start();
+                    getLog().info("Auto-refresh is active. Press Enter to stop...");
+
+                    try {
+                        prompter.prompt(System.lineSeparator());
+                    } catch (PrompterException e) {
+                        throw new MojoExecutionException("Error waiting for user input", e);
+                    }
+                } finally {
+                    if (liveReloadServer != null) {
+                        liveReloadServer.stop();
+                    }
                 }
-
-                monitor.stop();
                 getLog().info("Auto-refresh stopped.");
             }
         } catch (RendererException e) {
@@ -178,6 +195,32 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
         }
     }
 
+    /**
+     * Start the server serving the site with live reload if {@link #liveReloadPort} is set.
+     *
+     * @return the server, or <code>null</code>
+     */
+    private Server startLiveReload() throws Exception {
+        if (liveReloadPort <= 0) {
+            return null;
+        }
+        liveReloadServlet = new LiveReloadServlet();
+        ServletHolder holder = new ServletHolder(liveReloadServlet);
+        holder.setAsyncSupported(true);
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.addServlet(holder, LiveReloadServlet.PATH);
+        handler.addServlet(
+                new ServletHolder(new LiveReloadPageServlet(
+                        outputDirectory, LiveReloadServlet.getSnippet(LiveReloadServlet.PATH), getOutputEncoding())),
+                "/");
+
+        Server server = new Server(InetSocketAddress.createUnresolved("localhost", liveReloadPort));
+        server.setHandler(handler);
+        server.start();
+        getLog().info("Browse the site with live reload at http://localhost:" + liveReloadPort + "/");
+        return server;
+    }
+
     private void handleDeletion(File deletedFile, List<Locale> localesList) {
         getLog().info("Deletion detected: \"" + deletedFile.getAbsolutePath() + "\" — removing rendered output...");
         try {
@@ -234,9 +277,19 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
         }
     }
 
-    private void triggerRerender(File changedFile, List<Locale> localesList) {
-        getLog().info("Change detected in \"" + changedFile.getAbsolutePath() + "\" — re-rendering...");
+    private void triggerRerender(Collection<File> changedFiles, List<Locale> localesList) {
+        if (changedFiles.size() == 1) {
+            getLog().info("Change detected in \"" + changedFiles.iterator().next().getAbsolutePath()
+                    + "\" — re-rendering...");
+        } else {
+            getLog().info("Changes detected in " + changedFiles.size() + " files — re-rendering...");
+        }
+        Set<String> changedPaths = new HashSet<>();
+        for (File changedFile : changedFiles) {
+            changedPaths.add(changedFile.getAbsolutePath());
+        }
         try {
+            List<String> renderedPages = new ArrayList<>();
             for (Locale locale : localesList) {
                 File localeOutputDirectory = getOutputDirectory(locale);
                 SiteRenderingContext context = createSiteRenderingContext(locale);
@@ -246,31 +299,44 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
 
                 Map<String, DocumentRenderer> documents = locateDocuments(context, Collections.emptyList(), locale);
 
-                // find only the document(s) whose source matches the changed file
+                // find only the document(s) whose source matches a changed file
                 List<DocumentRenderer> affected = new ArrayList<>();
+                Set<String> matchedPaths = new HashSet<>();
                 for (DocumentRenderer doc : documents.values()) {
                     if (doc instanceof DoxiaDocumentRenderer) {
                         DoxiaDocumentRenderer doxiaDoc = (DoxiaDocumentRenderer) doc;
                         File sourceFile = new File(
                                 doxiaDoc.getRenderingContext().getBasedir(),
                                 doxiaDoc.getRenderingContext().getInputPath());
-                        if (sourceFile.getAbsolutePath().equals(changedFile.getAbsolutePath())) {
+                        if (changedPaths.contains(sourceFile.getAbsolutePath())) {
                             affected.add(doc);
+                            matchedPaths.add(sourceFile.getAbsolutePath());
                         }
                     }
                 }
 
-                if (affected.isEmpty()) {
-                    getLog().debug("No matching Doxia document found for \"" + changedFile + "\", re-rendering all.");
-                    siteRenderer.render(documents.values(), context, localeOutputDirectory);
+                if (matchedPaths.size() < changedPaths.size()) {
+                    getLog().debug("No matching Doxia document found for some of " + changedFiles
+                            + ", re-rendering all.");
+                    affected.clear();
+                    affected.addAll(documents.values());
                 } else {
                     getLog().info("Re-rendering " + affected.size() + " affected document(s).");
-                    siteRenderer.render(affected, context, localeOutputDirectory);
+                }
+                siteRenderer.render(affected, context, localeOutputDirectory);
+
+                String prefix = !locale.equals(SiteTool.DEFAULT_LOCALE) ? locale + "/" : "";
+                for (DocumentRenderer doc : affected) {
+                    renderedPages.add(prefix + doc.getOutputName());
                 }
             }
             getLog().info("Re-render complete.");
+
+            if (liveReloadServlet != null) {
+                liveReloadServlet.notify(renderedPages);
+            }
         } catch (Exception e) {
-            getLog().error("Error re-rendering Doxia source file \"" + changedFile + "\"", e);
+            getLog().error("Error re-rendering Doxia source files " + changedFiles, e);
         }
     }
 
@@ -300,4 +366,59 @@ public class AutoRefreshMojo extends AbstractSiteRenderingMojo {
         }
         return file;
     }
+
+    /**
+     * Serves the rendered site, injecting the live reload client snippet in the HTML pages as they are sent.
+     */
+    private static class LiveReloadPageServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final File directory;
+
+        private final String snippet;
+
+        private final String encoding;
+
+        LiveReloadPageServlet(File directory, String snippet, String encoding) {
+            this.directory = directory;
+            this.snippet = snippet;
+            this.encoding = encoding;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String path = request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+            if (path.isEmpty() || path.endsWith("/")) {
+                path += "index.html";
+            }
+            Path root = directory.toPath().toAbsolutePath().normalize();
+            Path file = root.resolve(path.substring(1)).normalize();
+            if (!file.startsWith(root)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (Files.isDirectory(file)) {
+                response.sendRedirect(request.getRequestURI() + '/');
+                return;
+            }
+            if (!Files.isRegularFile(file)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            // pages change as soon as they are rendered again
+            response.setHeader("Cache-Control", "no-cache");
+            String name = file.getFileName().toString();
+            byte[] content = Files.readAllBytes(file);
+            if (name.endsWith(".html")) {
+                Charset charset = Charset.forName(encoding);
+                content = LiveReloadServlet.inject(new String(content, charset), snippet).getBytes(charset);
+                response.setContentType("text/html;charset=" + encoding);
+            } else if (MimeTypes.getDefaultMimeByExtension(name) != null) {
+                response.setContentType(MimeTypes.getDefaultMimeByExtension(name));
+            }
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+    }
 }
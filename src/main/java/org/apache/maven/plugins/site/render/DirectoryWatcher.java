@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Watches directory trees for file changes, and notifies a listener with batches of changed and deleted files.
+ * <p>
+ * Changes are detected with the native file system events of a {@link WatchService}, every directory of the trees
+ * being registered, including the ones created while watching. Events are coalesced until none is received during a
+ * quiet period, so that bursts like a checkout of many files are notified as one batch. Where native events are not
+ * available, including the JDK implementation that polls directories every 10 seconds, the trees are scanned at a
+ * fixed interval instead.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+public class DirectoryWatcher implements Closeable {
+    /**
+     * Listener of file changes, called on the thread of the watcher.
+     */
+    public interface Listener {
+        /**
+         * @param changed the files created or modified
+         * @param deleted the files or directories deleted
+         */
+        void onChange(Set<File> changed, Set<File> deleted);
+    }
+
+    private final List<Path> roots = new ArrayList<>();
+
+    private final long quietPeriod;
+
+    private final long pollingInterval;
+
+    private final Listener listener;
+
+    private final Log log;
+
+    private final boolean nativeEvents;
+
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+
+    /**
+     * Stamps of the files, when polling.
+     */
+    private Map<Path, Long> snapshot;
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    /**
+     * @param directories the directories to watch
+     * @param quietPeriod the time in milliseconds without any event that ends a batch
+     * @param pollingInterval the interval in milliseconds between two scans, without native events
+     * @param listener the listener
+     * @param log the log
+     */
+    public DirectoryWatcher(
+            Collection<File> directories, long quietPeriod, long pollingInterval, Listener listener, Log log) {
+        this(directories, quietPeriod, pollingInterval, listener, log, true);
+    }
+
+    DirectoryWatcher(
+            Collection<File> directories,
+            long quietPeriod,
+            long pollingInterval,
+            Listener listener,
+            Log log,
+            boolean nativeEvents) {
+        for (File directory : directories) {
+            roots.add(directory.toPath().toAbsolutePath());
+        }
+        this.quietPeriod = quietPeriod;
+        this.pollingInterval = pollingInterval;
+        this.listener = listener;
+        this.log = log;
+        this.nativeEvents = nativeEvents;
+    }
+
+    /**
+     * Start watching on a daemon thread.
+     *
+     * @throws IOException in case of IO issue while scanning or registering the directories
+     */
+    public void start() throws IOException {
+        if (nativeEvents) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+            } catch (UnsupportedOperationException e) {
+                log.debug("File system events are not supported", e);
+            }
+            if (watchService != null && watchService.getClass().getName().endsWith("PollingWatchService")) {
+                watchService.close();
+                watchService = null;
+            }
+        }
+
+        if (watchService != null) {
+            for (Path root : roots) {
+                register(root, null);
+            }
+            thread = new Thread(this::watchEvents, "site-watcher");
+        } else {
+            log.info("Native file system events are not available, polling for changes every " + pollingInterval
+                    + " ms");
+            snapshot = scan(roots);
+            thread = new Thread(this::poll, "site-watcher");
+        }
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching.
+     */
+    @Override
+    public void close() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchEvents() {
+        try {
+            while (true) {
+                Set<Path> paths = new LinkedHashSet<>();
+                boolean overflow = false;
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    overflow |= processEvents(key, paths);
+                    key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+                }
+                if (overflow) {
+                    // events were lost: every file may have changed
+                    log.debug("File system events overflow, scanning " + roots);
+                    for (Path root : roots) {
+                        register(root, null);
+                    }
+                    paths.addAll(scan(roots).keySet());
+                }
+                notifyListener(paths);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (IOException e) {
+            log.error("Unable to watch " + roots, e);
+        }
+    }
+
+    /**
+     * Add the paths of the events of a key.
+     *
+     * @return <code>true</code> if events were lost
+     */
+    private boolean processEvents(WatchKey key, Set<Path> paths) {
+        Path directory = keys.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            paths.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    // files may have been created in the directory before it was registered
+                    register(path, paths);
+                } catch (IOException e) {
+                    log.warn("Unable to watch " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Register a directory tree.
+     *
+     * @param root the root of the tree
+     * @param paths the set to add the files of the tree to, or <code>null</code>
+     */
+    private void register(Path root, Set<Path> paths) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(
+                        watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (paths != null) {
+                    paths.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // deleted in the meantime
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void poll() {
+        try {
+            while (true) {
+                Thread.sleep(pollingInterval);
+                Set<Path> paths = new LinkedHashSet<>();
+                for (Set<Path> changes = scanChanges(); !changes.isEmpty(); changes = scanChanges()) {
+                    paths.addAll(changes);
+                    Thread.sleep(Math.min(quietPeriod, pollingInterval));
+                }
+                notifyListener(paths);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Unable to watch " + roots, e);
+        }
+    }
+
+    /**
+     * Scan the trees and compare them with the previous scan.
+     *
+     * @return the paths of the files created, modified or deleted since the previous scan
+     */
+    private Set<Path> scanChanges() throws IOException {
+        Map<Path, Long> current = scan(roots);
+        Set<Path> changes = new LinkedHashSet<>();
+        for (Map.Entry<Path, Long> entry : current.entrySet()) {
+            if (!entry.getValue().equals(snapshot.get(entry.getKey()))) {
+                changes.add(entry.getKey());
+            }
+        }
+        for (Path path : snapshot.keySet()) {
+            if (!current.containsKey(path)) {
+                changes.add(path);
+            }
+        }
+        snapshot = current;
+        return changes;
+    }
+
+    /**
+     * @return the stamps of the files of the trees, by path
+     */
+    private static Map<Path, Long> scan(Collection<Path> roots) throws IOException {
+        Map<Path, Long> stamps = new HashMap<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        // CHECKSTYLE_OFF: MagicNumber
+                        stamps.put(file, attrs.lastModifiedTime().toMillis() * 31 + attrs.size());
+                        // CHECKSTYLE_ON: MagicNumber
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return stamps;
+    }
+
+    private void notifyListener(Set<Path> paths) {
+        Set<File> changed = new LinkedHashSet<>();
+        Set<File> deleted = new LinkedHashSet<>();
+        for (Path path : paths) {
+            if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                deleted.add(path.toFile());
+            } else if (!Files.isDirectory(path)) {
+                changed.add(path.toFile());
+            }
+        }
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        try {
+            listener.onChange(changed, deleted);
+        } catch (RuntimeException e) {
+            log.error("Error handling changes of " + changed + deleted, e);
+        }
+    }
+}
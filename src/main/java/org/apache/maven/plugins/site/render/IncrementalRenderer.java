@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Selects the Doxia documents that need to be rendered again, based on a manifest of content hashes written by the
+ * previous build.
+ * <p>
+ * The manifest contains one global hash, covering every input shared by all the documents (site model, skin,
+ * template properties, ...), and one hash per Doxia source document. A document is skipped when the global hash and
+ * its own hash are unchanged and its output still exists. Velocity documents (<code>*.vm</code>), documents calling
+ * a macro that reads other files (<code>snippet</code>, <code>include</code>, <code>ssi</code>) and non-Doxia
+ * documents like reports are always rendered.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+class IncrementalRenderer {
+    private static final String GLOBAL_KEY = "global";
+
+    private static final String DOCUMENT_KEY_PREFIX = "document.";
+
+    /**
+     * Call of a macro reading other files, in APT (<code>%{snippet|...}</code>), Markdown
+     * (<code>&lt;!-- MACRO{include|...} --&gt;</code>) or XDoc (<code>&lt;macro name="ssi"&gt;</code>).
+     */
+    private static final Pattern FILE_MACRO =
+            Pattern.compile("(?:%\\{|MACRO\\{|<macro\\s+name\\s*=\\s*[\"'])\\s*(?:snippet|include|ssi)\\b");
+
+    private final File manifestFile;
+
+    private final String globalHash;
+
+    private final Log log;
+
+    private final Properties previous = new Properties();
+
+    private final Properties current = new Properties();
+
+    /**
+     * @param manifestFile the manifest file, read if it exists and written by {@link #store()}
+     * @param globalHash the hash of the inputs shared by all the documents
+     * @param log the log
+     * @throws IOException if the manifest can't be read
+     */
+    IncrementalRenderer(File manifestFile, String globalHash, Log log) throws IOException {
+        this.manifestFile = manifestFile;
+        this.globalHash = globalHash;
+        this.log = log;
+
+        if (manifestFile.isFile()) {
+            try (InputStream in = Files.newInputStream(manifestFile.toPath())) {
+                previous.load(in);
+            }
+        }
+        current.setProperty(GLOBAL_KEY, globalHash);
+    }
+
+    /**
+     * Select the documents to render. The outputs of documents to render again are deleted, to force Doxia to render
+     * them whatever their timestamps, and the outputs of documents whose sources were removed since the previous build
+     * are deleted too.
+     *
+     * @param documents all the documents
+     * @param outputDirectory the output directory
+     * @return the documents to render
+     * @throws IOException in case of IO issue
+     */
+    List<DocumentRenderer> select(Collection<DocumentRenderer> documents, File outputDirectory) throws IOException {
+        boolean globalUnchanged = globalHash.equals(previous.getProperty(GLOBAL_KEY));
+        if (!previous.isEmpty() && !globalUnchanged) {
+            log.info("Site model, skin or template properties changed: rendering all documents");
+        }
+
+        List<DocumentRenderer> selected = new ArrayList<>(documents.size());
+        int skipped = 0;
+        for (DocumentRenderer doc : documents) {
+            if (!(doc instanceof DoxiaDocumentRenderer)) {
+                selected.add(doc);
+                continue;
+            }
+
+            String key = DOCUMENT_KEY_PREFIX + doc.getOutputName();
+            DocumentRenderingContext docRenderingContext = doc.getRenderingContext();
+            File output = new File(outputDirectory, doc.getOutputName());
+
+            if (docRenderingContext.getInputPath().endsWith(".vm")) {
+                // Velocity may pull content from anywhere
+                selected.add(doc);
+                continue;
+            }
+
+            String hash = hashDocument(docRenderingContext);
+            if (hash == null) {
+                // the content of the files read by the macros is not hashed
+                selected.add(doc);
+                continue;
+            }
+            current.setProperty(key, hash);
+
+            if (globalUnchanged && hash.equals(previous.getProperty(key)) && output.exists()) {
+                skipped++;
+            } else {
+                Files.deleteIfExists(output.toPath());
+                selected.add(doc);
+            }
+        }
+
+        for (String key : previous.stringPropertyNames()) {
+            if (key.startsWith(DOCUMENT_KEY_PREFIX) && !current.containsKey(key)) {
+                File output = new File(outputDirectory, key.substring(DOCUMENT_KEY_PREFIX.length()));
+                if (Files.deleteIfExists(output.toPath())) {
+                    log.info("Deleted " + output + ": source document was removed");
+                }
+            }
+        }
+
+        if (skipped > 0) {
+            log.info("Skipping " + skipped + " unchanged Doxia document" + (skipped > 1 ? "s" : ""));
+        }
+        return selected;
+    }
+
+    /**
+     * Write the manifest, once every selected document has been rendered successfully.
+     *
+     * @throws IOException in case of IO issue
+     */
+    void store() throws IOException {
+        Files.createDirectories(manifestFile.getParentFile().toPath());
+        try (OutputStream out = Files.newOutputStream(manifestFile.toPath())) {
+            current.store(out, "Site rendering manifest, used to skip unchanged documents");
+        }
+    }
+
+    /**
+     * @return the hash of the document, or <code>null</code> if it calls a macro reading other files
+     */
+    private static String hashDocument(DocumentRenderingContext docRenderingContext) throws IOException {
+        MessageDigest digest = Digests.newDigest();
+        digest.update((docRenderingContext.getParserId() + '\n' + docRenderingContext.getInputPath() + '\n'
+                        + docRenderingContext.isEditable() + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        File source = new File(docRenderingContext.getBasedir(), docRenderingContext.getInputPath());
+        if (source.isFile()) {
+            byte[] content = Files.readAllBytes(source.toPath());
+            // macro names are ASCII in every source encoding
+            if (FILE_MACRO.matcher(new String(content, StandardCharsets.ISO_8859_1)).find()) {
+                return null;
+            }
+            digest.update(content);
+        }
+        return Digests.toHex(digest.digest());
+    }
+}
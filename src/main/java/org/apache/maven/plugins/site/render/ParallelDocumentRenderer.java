@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
+import org.apache.maven.reporting.MavenReportException;
+
+/**
+ * Renders a collection of documents on a fixed size thread pool, one task per document.
+ * <p>
+ * Every task hands a single document to {@link SiteRenderer#render(Collection, SiteRenderingContext, File)}, which
+ * creates a dedicated sink and Velocity context for each document, so the output is the same as the one produced by
+ * a sequential rendering. With one thread (or one document), rendering is done on the calling thread.
+ * </p>
+ * <p>
+ * Doxia parsers keep parsing state, so when documents may be rendered concurrently, the parser of a Doxia document
+ * is locked with {@link ParserLocks} for the whole rendering of the document: documents of a same format are rendered
+ * one after the other, documents of different formats concurrently. No lock is taken when documents are never
+ * rendered concurrently.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+class ParallelDocumentRenderer {
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final SiteRenderer siteRenderer;
+
+    private final int threads;
+
+    private final BuildProfiler profiler;
+
+    /**
+     * Locks on Doxia parsers, or <code>null</code> if documents are never rendered concurrently.
+     */
+    private final ParserLocks parserLocks;
+
+    ParallelDocumentRenderer(SiteRenderer siteRenderer, int threads) {
+        this(siteRenderer, threads, null);
+    }
+
+    ParallelDocumentRenderer(SiteRenderer siteRenderer, int threads, BuildProfiler profiler) {
+        this(siteRenderer, threads, profiler, (threads > 1) ? new ParserLocks() : null);
+    }
+
+    /**
+     * @param siteRenderer the site renderer
+     * @param threads the count of threads
+     * @param profiler the profiler recording the rendering of each document, or <code>null</code>
+     * @param parserLocks the locks on Doxia parsers, or <code>null</code> if documents are never rendered
+     *            concurrently, neither by this renderer nor by other threads
+     */
+    ParallelDocumentRenderer(SiteRenderer siteRenderer, int threads, BuildProfiler profiler, ParserLocks parserLocks) {
+        this.siteRenderer = siteRenderer;
+        this.threads = threads;
+        this.profiler = profiler;
+        this.parserLocks = parserLocks;
+    }
+
+    /**
+     * Render the given documents.
+     *
+     * @param documents the documents to render
+     * @param context the site rendering context, shared read-only by all the tasks
+     * @param outputDirectory the output directory
+     * @throws RendererException if a document fails to render
+     * @throws IOException in case of IO issue
+     */
+    void render(Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        if (threads <= 1 || documents.size() <= 1) {
+            for (DocumentRenderer doc : documents) {
+                try {
+                    renderDocument(doc, context, outputDirectory);
+                } catch (RendererException | IOException | RuntimeException e) {
+                    throw toRendererException(doc, e);
+                }
+            }
+            return;
+        }
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.min(threads, documents.size()), newThreadFactory("site-render"));
+        try {
+            List<Future<Void>> futures = new ArrayList<>(documents.size());
+            for (DocumentRenderer doc : documents) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        renderDocument(doc, context, outputDirectory);
+                    } catch (RendererException | IOException | RuntimeException e) {
+                        throw toRendererException(doc, e);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    for (Future<Void> other : futures) {
+                        other.cancel(true);
+                    }
+                    if (e.getCause() instanceof RendererException) {
+                        throw (RendererException) e.getCause();
+                    }
+                    throw new RendererException("Error rendering documents", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RendererException("Interrupted while rendering documents", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void renderDocument(DocumentRenderer doc, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        DocumentRenderer document = (parserLocks == null) ? doc : parserLocks.lock(doc);
+        siteRenderer.render(
+                ProfiledDocumentRenderer.profile(Collections.singletonList(document), profiler),
+                context,
+                outputDirectory);
+    }
+
+    private static RendererException toRendererException(DocumentRenderer doc, Throwable cause) {
+        if (cause instanceof RendererException && cause.getCause() instanceof MavenReportException) {
+            // report failures already name the report, and are unwrapped by the mojo
+            return (RendererException) cause;
+        }
+        return new RendererException("Error rendering " + getSource(doc) + ": " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Describe the source of a document for error reporting.
+     *
+     * @param doc the document
+     * @return the Doxia source path for Doxia documents, the output name for other documents
+     */
+    static String getSource(DocumentRenderer doc) {
+        if (doc instanceof DoxiaDocumentRenderer) {
+            DocumentRenderingContext docRenderingContext = doc.getRenderingContext();
+            String source = docRenderingContext.getDoxiaSourcePath();
+            if (source == null) {
+                source = new File(docRenderingContext.getBasedir(), docRenderingContext.getInputPath()).getPath();
+            }
+            return '\'' + source + '\'';
+        }
+        return '"' + doc.getOutputName() + '"';
+    }
+
+    /**
+     * Create a thread factory for daemon worker threads named after the given prefix.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory
+     */
+    static ThreadFactory newThreadFactory(String prefix) {
+        String poolName = prefix + '-' + POOL_COUNT.incrementAndGet() + '-';
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, poolName + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import javax.inject.Named;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.maven.SessionScoped;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+
+/**
+ * Locks on Doxia parsers, keyed by parser id, shared by all the site rendering mojos of a Maven session. Doxia parsers
+ * are components shared by every lookup, and they keep parsing state such as the stack of open elements: two
+ * documents of the same format must never be rendered at the same time, whether by concurrent threads of a mojo, by
+ * concurrent requests to <code>site:run</code> or by mojos of modules built in parallel.
+ *
+ * @since 3.22.1
+ */
+@Named
+@SessionScoped
+public class ParserLocks {
+    private final Map<String, Lock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * @param parserId the parser id
+     * @return the lock of the parser
+     */
+    Lock getLock(String parserId) {
+        return locks.computeIfAbsent(parserId, k -> new ReentrantLock());
+    }
+
+    /**
+     * Lock the parser of a Doxia document while it is rendered.
+     *
+     * @param doc the document
+     * @return a document renderer holding the lock of its parser for the whole rendering, or the document itself if it
+     *         is not parsed by Doxia
+     */
+    public DocumentRenderer lock(DocumentRenderer doc) {
+        if (!(doc instanceof DoxiaDocumentRenderer) || doc.getRenderingContext().getParserId() == null) {
+            return doc;
+        }
+        return new ParserLockedDocumentRenderer(doc, getLock(doc.getRenderingContext().getParserId()));
+    }
+
+    /**
+     * Document renderer holding the lock of its parser while the document is rendered.
+     */
+    private static class ParserLockedDocumentRenderer implements DocumentRenderer {
+        private final DocumentRenderer delegate;
+
+        private final Lock parserLock;
+
+        ParserLockedDocumentRenderer(DocumentRenderer delegate, Lock parserLock) {
+            this.delegate = delegate;
+            this.parserLock = parserLock;
+        }
+
+        @Override
+        public void renderDocument(Writer writer, SiteRenderer siteRenderer, SiteRenderingContext siteRenderingContext)
+                throws RendererException, IOException {
+            parserLock.lock();
+            try {
+                delegate.renderDocument(writer, siteRenderer, siteRenderingContext);
+            } finally {
+                parserLock.unlock();
+            }
+        }
+
+        @Override
+        public String getOutputName() {
+            return delegate.getOutputName();
+        }
+
+        @Override
+        public String getOutputPath() {
+            return delegate.getOutputPath();
+        }
+
+        @Override
+        public DocumentRenderingContext getRenderingContext() {
+            return delegate.getRenderingContext();
+        }
+
+        @Override
+        public boolean isOverwrite() {
+            return delegate.isOverwrite();
+        }
+
+        @Override
+        public boolean isExternalReport() {
+            return delegate.isExternalReport();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
+
+/**
+ * Document renderer recording the rendering of another one in a {@link BuildProfiler}. It is meant to be created
+ * just before handing the document to the site renderer, once documents have been sorted by type.
+ *
+ * @since 3.22.1
+ */
+class ProfiledDocumentRenderer implements DocumentRenderer {
+    private final DocumentRenderer delegate;
+
+    private final BuildProfiler profiler;
+
+    ProfiledDocumentRenderer(DocumentRenderer delegate, BuildProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Wrap documents to record their rendering.
+     *
+     * @param documents the documents
+     * @param profiler the profiler, or <code>null</code>
+     * @return the wrapped documents, or the given documents if there is no profiler
+     */
+    static Collection<DocumentRenderer> profile(Collection<DocumentRenderer> documents, BuildProfiler profiler) {
+        if (profiler == null) {
+            return documents;
+        }
+        List<DocumentRenderer> profiled = new ArrayList<>(documents.size());
+        for (DocumentRenderer doc : documents) {
+            profiled.add(new ProfiledDocumentRenderer(doc, profiler));
+        }
+        return profiled;
+    }
+
+    private String getCategory() {
+        if (delegate instanceof DoxiaDocumentRenderer) {
+            return "document";
+        } else if (delegate instanceof ReportDocumentRenderer || delegate instanceof SitePluginReportDocumentRenderer) {
+            return "report";
+        }
+        return "other";
+    }
+
+    @Override
+    public void renderDocument(Writer writer, SiteRenderer siteRenderer, SiteRenderingContext siteRenderingContext)
+            throws RendererException, IOException {
+        Locale locale = siteRenderingContext.getLocale();
+        String name = (locale == null || locale.equals(SiteTool.DEFAULT_LOCALE))
+                ? getOutputName()
+                : locale + "/" + getOutputName();
+        BuildProfiler.Sample start = profiler.start();
+        try {
+            delegate.renderDocument(writer, siteRenderer, siteRenderingContext);
+        } finally {
+            profiler.record(getCategory(), name, start);
+        }
+    }
+
+    @Override
+    public String getOutputName() {
+        return delegate.getOutputName();
+    }
+
+    @Override
+    public String getOutputPath() {
+        return delegate.getOutputPath();
+    }
+
+    @Override
+    public DocumentRenderingContext getRenderingContext() {
+        return delegate.getRenderingContext();
+    }
+
+    @Override
+    public boolean isOverwrite() {
+        return delegate.isOverwrite();
+    }
+
+    @Override
+    public boolean isExternalReport() {
+        return delegate.isExternalReport();
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.siterenderer.DocumentContent;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.ReportSet;
+import org.apache.maven.model.Resource;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugins.site.Digests;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Cache of report pages content between builds.
+ * <p>
+ * An entry is keyed by the report plugin coordinates and goal, the report configuration in the project model, the
+ * locale, and a fingerprint of the project inputs: project model, dependencies, and the paths, sizes and modification
+ * times of the sources, resources and compiled classes. It is a zip file containing the content of the main page of the
+ * report and of each sub-page of multi-page reports, one entry per page, as captured from their sinks, ready to be
+ * merged again into the site skin without generating the report.
+ * </p>
+ * <p>
+ * Only the latest entry of a report goal, locale and output name is kept: a new entry is written under a temporary
+ * name, then replaces the previous one with a single move.
+ * </p>
+ *
+ * @since 3.22.1
+ */
+class ReportCache {
+    private static final String MAIN_FILE = "main.properties";
+
+    private final File cacheDirectory;
+
+    private final MavenProject project;
+
+    private String projectFingerprint;
+
+    /**
+     * @param cacheDirectory the directory where entries are stored
+     * @param project the project, whose inputs are fingerprinted once for all the reports
+     */
+    ReportCache(File cacheDirectory, MavenProject project) {
+        this.cacheDirectory = cacheDirectory;
+        this.project = project;
+    }
+
+    /**
+     * Compute the key of the output of a report.
+     *
+     * @param exec the report execution
+     * @param locale the locale
+     * @param outputName the output name of the main page
+     * @return the key
+     * @throws IOException if the project inputs can't be read
+     */
+    Key getKey(MavenReportExecution exec, Locale locale, String outputName) throws IOException {
+        Plugin plugin = exec.getPlugin();
+        MessageDigest slotDigest = Digests.newDigest();
+        slotDigest.update(
+                (plugin.getKey() + ':' + exec.getGoal() + '\n' + locale + '\n' + outputName).getBytes(UTF_8));
+
+        MessageDigest digest = Digests.newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(NullOutputStream.INSTANCE, digest), UTF_8)) {
+            writer.write(plugin.getGroupId() + ':' + plugin.getArtifactId() + ':' + plugin.getVersion() + ':'
+                    + exec.getGoal() + '\n');
+            writer.write(locale + "\n" + outputName + '\n');
+
+            ReportPlugin reportPlugin = getReportPlugin(plugin);
+            if (reportPlugin != null) {
+                writer.write(String.valueOf(reportPlugin.getConfiguration()) + '\n');
+                for (ReportSet reportSet : reportPlugin.getReportSets()) {
+                    writer.write(reportSet.getId() + ':' + reportSet.getReports() + '\n');
+                    writer.write(String.valueOf(reportSet.getConfiguration()) + '\n');
+                }
+            }
+            Plugin buildPlugin = project.getBuild().getPluginsAsMap().get(plugin.getKey());
+            if (buildPlugin != null) {
+                writer.write(String.valueOf(buildPlugin.getConfiguration()) + '\n');
+            }
+
+            writer.write(getProjectFingerprint());
+        }
+        return new Key(Digests.toHex(slotDigest.digest()), Digests.toHex(digest.digest()));
+    }
+
+    private ReportPlugin getReportPlugin(Plugin plugin) {
+        if (project.getModel().getReporting() == null) {
+            return null;
+        }
+        for (ReportPlugin reportPlugin : project.getModel().getReporting().getPlugins()) {
+            if (plugin.getKey().equals(reportPlugin.getKey())) {
+                return reportPlugin;
+            }
+        }
+        return null;
+    }
+
+    private synchronized String getProjectFingerprint() throws IOException {
+        if (projectFingerprint == null) {
+            projectFingerprint = computeProjectFingerprint();
+        }
+        return projectFingerprint;
+    }
+
+    private String computeProjectFingerprint() throws IOException {
+        MessageDigest digest = Digests.newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(NullOutputStream.INSTANCE, digest), UTF_8)) {
+            new MavenXpp3Writer().write(writer, project.getModel());
+
+            // dependencies: snapshots may change without a version change
+            TreeMap<String, File> artifacts = new TreeMap<>();
+            for (Artifact artifact : project.getArtifacts()) {
+                artifacts.put(artifact.getId(), artifact.getFile());
+            }
+            for (String id : artifacts.keySet()) {
+                File file = artifacts.get(id);
+                writer.write(id + (file == null ? "" : ":" + file.length() + ':' + file.lastModified()) + '\n');
+            }
+        }
+
+        List<String> directories = new ArrayList<>();
+        directories.addAll(project.getCompileSourceRoots());
+        directories.addAll(project.getTestCompileSourceRoots());
+        for (Resource resource : project.getResources()) {
+            directories.add(resource.getDirectory());
+        }
+        for (Resource resource : project.getTestResources()) {
+            directories.add(resource.getDirectory());
+        }
+        directories.add(project.getBuild().getOutputDirectory());
+        directories.add(project.getBuild().getTestOutputDirectory());
+
+        for (String directory : directories) {
+            if (directory == null || !new File(directory).isDirectory()) {
+                continue;
+            }
+            Path root = new File(directory).toPath();
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            // sizes and modification times only: hashing every file would cost more than most reports
+            for (Path file : files) {
+                digest.update((directory + ':' + root.relativize(file) + ':' + Files.size(file) + ':'
+                                + Files.getLastModifiedTime(file).toMillis() + '\n')
+                        .getBytes(UTF_8));
+            }
+        }
+
+        return Digests.toHex(digest.digest());
+    }
+
+    /**
+     * Load a cache entry.
+     *
+     * @param key the key
+     * @return the cached report, to close once read, or <code>null</code> if there is no entry for the key
+     * @throws IOException in case of IO issue
+     */
+    CachedReport load(Key key) throws IOException {
+        File file = getEntryFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        ZipFile zip = new ZipFile(file);
+        boolean found = false;
+        try {
+            ZipEntry main = zip.getEntry(MAIN_FILE);
+            Properties properties = (main == null) ? null : read(zip, main);
+            // the latest entry of the report may be for other inputs
+            found = properties != null && key.value.equals(properties.getProperty("key"));
+            return found ? new CachedReport(zip, properties) : null;
+        } finally {
+            if (!found) {
+                zip.close();
+            }
+        }
+    }
+
+    /**
+     * Start writing a cache entry. Pages are written one at a time, as soon as they are available, and the entry is
+     * visible to {@link #load(Key)} only once committed.
+     *
+     * @param key the key
+     * @return the entry writer
+     * @throws IOException in case of IO issue
+     */
+    EntryWriter newEntry(Key key) throws IOException {
+        Files.createDirectories(cacheDirectory.toPath());
+        return new EntryWriter(key, Files.createTempFile(cacheDirectory.toPath(), key.slot + '-', ".tmp"));
+    }
+
+    private File getEntryFile(Key key) {
+        return new File(cacheDirectory, key.slot + ".zip");
+    }
+
+    private static Properties read(ZipFile zip, ZipEntry entry) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = zip.getInputStream(entry)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static Properties toProperties(DocumentContent content) {
+        Properties properties = new Properties();
+        setIfNotNull(properties, "title", content.getTitle());
+        setIfNotNull(properties, "date", content.getDate());
+        setIfNotNull(properties, "head", content.getHead());
+        setIfNotNull(properties, "body", content.getBody());
+        if (content.getAuthors() != null) {
+            properties.setProperty("authors", String.join("\n", content.getAuthors()));
+        }
+        return properties;
+    }
+
+    private static void setIfNotNull(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static CachedDocumentContent toContent(Properties properties, DocumentRenderingContext renderingContext) {
+        String authors = properties.getProperty("authors");
+        return new CachedDocumentContent(
+                properties.getProperty("path"),
+                properties.getProperty("title"),
+                properties.getProperty("date"),
+                (authors == null || authors.isEmpty()) ? Collections.emptyList() : Arrays.asList(authors.split("\n")),
+                properties.getProperty("head"),
+                properties.getProperty("body"),
+                renderingContext);
+    }
+
+    private static String getPageFile(int index) {
+        return "page-" + index + ".properties";
+    }
+
+    /**
+     * Key of a cache entry.
+     */
+    static final class Key {
+        private final String slot;
+
+        private final String value;
+
+        /**
+         * @param slot the identifier of the report goal, locale and output name, which have only one entry
+         * @param value the digest of all the inputs of the report
+         */
+        Key(String slot, String value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Key) && slot.equals(((Key) obj).slot) && value.equals(((Key) obj).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return slot.hashCode() * 31 + value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return slot + ':' + value;
+        }
+    }
+
+    /**
+     * Writer of a cache entry, in a temporary file moved to the entry file on commit.
+     */
+    class EntryWriter {
+        private final Key key;
+
+        private final Path file;
+
+        private ZipOutputStream zip;
+
+        private int pageCount;
+
+        private EntryWriter(Key key, Path file) throws IOException {
+            this.key = key;
+            this.file = file;
+            this.zip = new ZipOutputStream(Files.newOutputStream(file));
+        }
+
+        /**
+         * Add a sub-page.
+         *
+         * @param path the path of the sub-page output file, relative to the report output directory
+         * @param content the content of the sub-page
+         * @throws IOException in case of IO issue
+         */
+        void addPage(String path, DocumentContent content) throws IOException {
+            Properties properties = toProperties(content);
+            properties.setProperty("path", path);
+            properties.setProperty("document", content.getRenderingContext().getInputPath());
+            write(properties, getPageFile(pageCount++));
+        }
+
+        private void write(Properties properties, String name) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            properties.store(zip, null);
+            zip.closeEntry();
+        }
+
+        /**
+         * Write the main page and make the entry visible, replacing the previous entry of the report.
+         *
+         * @param main the content of the main page
+         * @throws IOException in case of IO issue
+         */
+        void commit(DocumentContent main) throws IOException {
+            Properties properties = toProperties(main);
+            properties.setProperty("key", key.value);
+            properties.setProperty("pages", Integer.toString(pageCount));
+            write(properties, MAIN_FILE);
+            zip.close();
+            zip = null;
+
+            try {
+                Files.move(file, getEntryFile(key).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // the previous entry is in use, on file systems that don't replace open files
+                abort();
+            }
+        }
+
+        /**
+         * Discard the entry.
+         */
+        void abort() {
+            if (zip != null) {
+                try {
+                    zip.close();
+                } catch (IOException e) {
+                    // deleted anyway
+                }
+                zip = null;
+            }
+            FileUtils.deleteQuietly(file.toFile());
+        }
+    }
+
+    /**
+     * The content of the pages of a report, read from the cache: the main page and, for multi-page reports, the
+     * sub-pages, read one at a time.
+     */
+    static class CachedReport implements Closeable {
+        private final ZipFile zip;
+
+        private final Properties main;
+
+        private CachedReport(ZipFile zip, Properties main) {
+            this.zip = zip;
+            this.main = main;
+        }
+
+        DocumentContent getMain(DocumentRenderingContext renderingContext) {
+            return toContent(main, renderingContext);
+        }
+
+        int getPageCount() {
+            return Integer.parseInt(main.getProperty("pages", "0"));
+        }
+
+        /**
+         * @param index the sub-page index
+         * @param basedir the base directory of the rendering contexts
+         * @param generator the generator of the report
+         * @return the content of the sub-page, with its path relative to the report output directory
+         * @throws IOException in case of IO issue
+         */
+        CachedDocumentContent getPage(int index, File basedir, String generator) throws IOException {
+            ZipEntry entry = zip.getEntry(getPageFile(index));
+            if (entry == null) {
+                throw new IOException("Missing page " + index + " in " + zip.getName());
+            }
+            Properties properties = read(zip, entry);
+            return toContent(
+                    properties,
+                    new DocumentRenderingContext(basedir, properties.getProperty("document"), generator));
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+
+    static class CachedDocumentContent implements DocumentContent {
+        private final String path;
+
+        private final String title;
+
+        private final String date;
+
+        private final List<String> authors;
+
+        private final String head;
+
+        private final String body;
+
+        private final DocumentRenderingContext renderingContext;
+
+        CachedDocumentContent(
+                String path,
+                String title,
+                String date,
+                List<String> authors,
+                String head,
+                String body,
+                DocumentRenderingContext renderingContext) {
+            this.path = path;
+            this.title = title;
+            this.date = date;
+            this.authors = authors;
+            this.head = head;
+            this.body = body;
+            this.renderingContext = renderingContext;
+        }
+
+        /**
+         * @return the path of the page output file, relative to the report output directory
+         */
+        String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getDate() {
+            return date;
+        }
+
+        @Override
+        public List<String> getAuthors() {
+            return authors;
+        }
+
+        @Override
+        public String getHead() {
+            return head;
+        }
+
+        @Override
+        public String getBody() {
+            return body;
+        }
+
+        @Override
+        public DocumentRenderingContext getRenderingContext() {
+            return renderingContext;
+        }
+    }
+}
@@ -25,8 +25,10 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.sink.Sink;
@@ -53,6 +55,8 @@ import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
  * @see org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer
  */
 public class ReportDocumentRenderer implements DocumentRenderer {
+    private final MavenReportExecution mavenReportExecution;
+
     private final MavenReport report;
 
     private final DocumentRenderingContext docRenderingContext;
@@ -63,8 +67,11 @@ public class ReportDocumentRenderer implements DocumentRenderer {
 
     private final Log log;
 
+    private ReportCache reportCache;
+
     public ReportDocumentRenderer(
             MavenReportExecution mavenReportExecution, DocumentRenderingContext docRenderingContext, Log log) {
+        this.mavenReportExecution = mavenReportExecution;
         this.report = mavenReportExecution.getMavenReport();
         this.docRenderingContext = docRenderingContext;
         this.reportMojoInfo = mavenReportExecution.getGoal() == null
@@ -79,12 +86,21 @@ public class ReportDocumentRenderer implements DocumentRenderer {
     }
 
     private static class MultiPageSubSink extends SiteRendererSink {
+        private final MultiPageSinkFactory factory;
+
         private File outputDirectory;
 
         private String outputName;
 
-        MultiPageSubSink(File outputDirectory, String outputName, DocumentRenderingContext docRenderingContext) {
+        private boolean closed;
+
+        MultiPageSubSink(
+                MultiPageSinkFactory factory,
+                File outputDirectory,
+                String outputName,
+                DocumentRenderingContext docRenderingContext) {
             super(docRenderingContext);
+            this.factory = factory;
             this.outputName = outputName;
             this.outputDirectory = outputDirectory;
         }
@@ -96,6 +112,20 @@ public class ReportDocumentRenderer implements DocumentRenderer {
         public File getOutputDirectory() {
             return outputDirectory;
         }
+
+        /**
+         * Close the sink and render the subpage right away, so its content can be garbage collected while the report
+         * generates the next ones.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            super.close();
+            factory.render(this);
+        }
     }
 
     private static class MultiPageSinkFactory implements SinkFactory {
@@ -109,18 +139,46 @@ public class ReportDocumentRenderer implements DocumentRenderer {
          */
         private DocumentRenderingContext docRenderingContext;
 
+        private final SiteRenderer siteRenderer;
+
+        private final SiteRenderingContext siteRenderingContext;
+
+        /**
+         * Cache entry the subpages are written to, or <code>null</code>
+         */
+        private final ReportCache.EntryWriter cacheEntry;
+
+        private final Log log;
+
         /**
-         * List of sinks (subpages) associated to this report
+         * Sinks (subpages) associated to this report, not yet closed by the report
          */
-        private List<MultiPageSubSink> sinks = new ArrayList<>();
+        private Set<MultiPageSubSink> openSinks = new LinkedHashSet<>();
 
-        MultiPageSinkFactory(MavenReport report, DocumentRenderingContext docRenderingContext) {
+        private int renderedCount;
+
+        /**
+         * First failure while rendering a subpage, reported once the report is generated
+         */
+        private Exception failure;
+
+        MultiPageSinkFactory(
+                MavenReport report,
+                DocumentRenderingContext docRenderingContext,
+                SiteRenderer siteRenderer,
+                SiteRenderingContext siteRenderingContext,
+                ReportCache.EntryWriter cacheEntry,
+                Log log) {
             this.report = report;
             this.docRenderingContext = docRenderingContext;
+            this.siteRenderer = siteRenderer;
+            this.siteRenderingContext = siteRenderingContext;
+            this.cacheEntry = cacheEntry;
+            this.log = log;
         }
 
         @Override
-        public Sink createSink(File outputDirectory, String outputName) {
+        public synchronized Sink createSink(File outputDirectory, String outputName) {
             // Create a new document rendering context, similar to the main one, but with a different output name
             String document = PathTool.getRelativeFilePath(
                     report.getReportOutputDirectory().getPath(), new File(outputDirectory, outputName).getPath());
@@ -131,10 +189,10 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                     docRenderingContext.getBasedir(), document, docRenderingContext.getGenerator());
 
             // Create a sink for this subpage, based on this new document rendering context
-            MultiPageSubSink sink = new MultiPageSubSink(outputDirectory, outputName, subSinkContext);
+            MultiPageSubSink sink = new MultiPageSubSink(this, outputDirectory, outputName, subSinkContext);
 
-            // Add it to the list of sinks associated to this report
-            sinks.add(sink);
+            // Add it to the sinks associated to this report, until it is closed
+            openSinks.add(sink);
 
             return sink;
         }
@@ -157,8 +215,68 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                     "Only createSink(File, String) is supported by MultiPageSinkFactory. OutputStream based sinks are not supported.");
         }
 
-        public List<MultiPageSubSink> sinks() {
-            return sinks;
+        /**
+         * Merge a closed subpage into the site and write it to its output file. Failures are not thrown to the report
+         * closing the sink, but recorded to be reported after the report generation.
+         */
+        private synchronized void render(MultiPageSubSink sink) {
+            openSinks.remove(sink);
+            if (failure != null || report.isExternalReport()) {
+                // external reports are rendered from their own: no Doxia site rendering needed
+                return;
+            }
+
+            String outputName = sink.getOutputName();
+            log.debug("  Rendering " + outputName);
+
+            try {
+                // Create directories if necessary
+                Files.createDirectories(sink.getOutputDirectory().toPath());
+
+                File outputFile = new File(sink.getOutputDirectory(), outputName);
+
+                if (cacheEntry != null) {
+                    cacheEntry.addPage(
+                            PathTool.getRelativeFilePath(
+                                            report.getReportOutputDirectory().getPath(), outputFile.getPath())
+                                    .replace('\\', '/'),
+                            sink);
+                }
+
+                try (Writer out = new OutputStreamWriter(
+                        Files.newOutputStream(outputFile.toPath()), siteRenderingContext.getOutputEncoding())) {
+                    siteRenderer.mergeDocumentIntoSite(out, sink, siteRenderingContext);
+                }
+                renderedCount++;
+            } catch (IOException | RendererException | RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Render the subpages the report did not close, then report the first rendering failure, if any.
+         *
+         * @return the count of rendered subpages
+         */
+        int finish() throws RendererException, IOException {
+            List<MultiPageSubSink> sinks;
+            synchronized (this) {
+                sinks = new ArrayList<>(openSinks);
+            }
+            for (MultiPageSubSink sink : sinks) {
+                sink.close();
+            }
+
+            synchronized (this) {
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                } else if (failure instanceof RendererException) {
+                    throw (RendererException) failure;
+                } else if (failure != null) {
+                    throw (RuntimeException) failure;
+                }
+                return renderedCount;
+            }
         }
     }
 
@@ -168,6 +286,40 @@ public class ReportDocumentRenderer implements DocumentRenderer {
         Locale locale = siteRenderingContext.getLocale();
         String localReportName = report.getName(locale);
 
+        ReportCache.EntryWriter cacheEntry = null;
+        if (reportCache != null) {
+            ReportCache.Key cacheKey =
+                    reportCache.getKey(mavenReportExecution, locale, docRenderingContext.getOutputName());
+            try (ReportCache.CachedReport cached = reportCache.load(cacheKey)) {
+                if (cached != null) {
+                    log.info("Reusing cached \"" + buffer().strong(localReportName) + "\" report");
+                    mergeCachedReport(cached, writer, siteRenderer, siteRenderingContext);
+                    return;
+                }
+            }
+            if (!report.isExternalReport()) {
+                cacheEntry = reportCache.newEntry(cacheKey);
+            }
+        }
+
+        try {
+            generate(writer, siteRenderer, siteRenderingContext, locale, localReportName, cacheEntry);
+        } finally {
+            if (cacheEntry != null) {
+                // no-op once committed
+                cacheEntry.abort();
+            }
+        }
+    }
+
+    private void generate(
+            Writer writer,
+            SiteRenderer siteRenderer,
+            SiteRenderingContext siteRenderingContext,
+            Locale locale,
+            String localReportName,
+            ReportCache.EntryWriter cacheEntry)
+            throws RendererException, IOException {
         String msg = "Generating \"" + buffer().strong(localReportName) + "\" report";
         // CHECKSTYLE_OFF: MagicNumber
         log.info(
@@ -179,9 +331,11 @@ public class ReportDocumentRenderer implements DocumentRenderer {
 
         // main sink
         SiteRendererSink mainSink = new SiteRendererSink(docRenderingContext);
-        // sink factory, for multipage reports that need sub-sinks
-        MultiPageSinkFactory multiPageSinkFactory = new MultiPageSinkFactory(report, docRenderingContext);
+        // sink factory, for multipage reports that need sub-sinks: each sub-sink is rendered as soon as it is closed
+        MultiPageSinkFactory multiPageSinkFactory = new MultiPageSinkFactory(
+                report, docRenderingContext, siteRenderer, siteRenderingContext, cacheEntry, log);
 
+        boolean complete = true;
         ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
         try {
             if (classLoader != null) {
@@ -208,6 +362,8 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                     "An issue has occurred with " + report + " report, skipping LinkageError " + e.getMessage()
                             + ", please report an issue to Maven dev team.",
                     e);
+            // never cache the output of an incomplete generation
+            complete = false;
         } finally {
             if (classLoader != null) {
                 Thread.currentThread().setContextClassLoader(originalClassLoader);
@@ -215,35 +371,45 @@ public class ReportDocumentRenderer implements DocumentRenderer {
             mainSink.close();
         }
 
+        // render sub-sinks left open by the report
+        int subreports = multiPageSinkFactory.finish();
+
         if (report.isExternalReport()) {
             // external reports are rendered from their own: no Doxia site rendering needed
             return;
         }
 
+        log.debug("Multipage report: " + subreports + " subreports");
+
         // render main sink document content
         siteRenderer.mergeDocumentIntoSite(writer, mainSink, siteRenderingContext);
 
-        // render sub-sinks, eventually created by multipage reports
-        List<MultiPageSubSink> sinks = multiPageSinkFactory.sinks();
-
-        log.debug("Multipage report: " + sinks.size() + " subreports");
-
-        for (MultiPageSubSink mySink : sinks) {
-            String outputName = mySink.getOutputName();
-            log.debug("  Rendering " + outputName);
+        if (cacheEntry != null && complete) {
+            cacheEntry.commit(mainSink);
+        }
+    }
 
-            // Create directories if necessary
-            if (!mySink.getOutputDirectory().exists()) {
-                mySink.getOutputDirectory().mkdirs();
-            }
+    /**
+     * Render the pages of a report from the cache, without generating the report.
+     */
+    private void mergeCachedReport(
+            ReportCache.CachedReport cached,
+            Writer writer,
+            SiteRenderer siteRenderer,
+            SiteRenderingContext siteRenderingContext)
+            throws RendererException, IOException {
+        siteRenderer.mergeDocumentIntoSite(writer, cached.getMain(docRenderingContext), siteRenderingContext);
 
-            File outputFile = new File(mySink.getOutputDirectory(), outputName);
+        for (int i = 0; i < cached.getPageCount(); i++) {
+            ReportCache.CachedDocumentContent page =
+                    cached.getPage(i, docRenderingContext.getBasedir(), docRenderingContext.getGenerator());
+            File outputFile = new File(report.getReportOutputDirectory(), page.getPath());
+            log.debug("  Rendering " + outputFile + " from cache");
 
+            Files.createDirectories(outputFile.getParentFile().toPath());
             try (Writer out = new OutputStreamWriter(
                     Files.newOutputStream(outputFile.toPath()), siteRenderingContext.getOutputEncoding())) {
-                siteRenderer.mergeDocumentIntoSite(out, mySink, siteRenderingContext);
-            } finally {
-                mySink.close();
+                siteRenderer.mergeDocumentIntoSite(out, page, siteRenderingContext);
             }
         }
     }
@@ -280,4 +446,23 @@ public class ReportDocumentRenderer implements DocumentRenderer {
     public String getReportMojoInfo() {
         return reportMojoInfo;
     }
+
+    /**
+     * Use a cache for the content of the report pages: when the cache contains the pages, they are merged into the
+     * site without generating the report, otherwise they are stored after generation.
+     *
+     * @param reportCache the cache, or <code>null</code> to always generate the report
+     * @since 3.22.1
+     */
+    void setReportCache(ReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
+    /**
+     * @return the report execution rendered by this renderer
+     * @since 3.22.1
+     */
+    public MavenReportExecution getMavenReportExecution() {
+        return mavenReportExecution;
+    }
 }
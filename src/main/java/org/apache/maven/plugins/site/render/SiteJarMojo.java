@@ -28,6 +28,7 @@ import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.plugin.MavenPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -122,9 +123,10 @@ public class SiteJarMojo extends SiteMojo {
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
             MavenReportExecutor mavenReportExecutor,
+            MavenPluginManager mavenPluginManager,
             MavenProjectHelper projectHelper,
             JarArchiver jarArchiver) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+        super(assembler, siteRenderer, mavenReportExecutor, mavenPluginManager);
         this.projectHelper = projectHelper;
         this.jarArchiver = jarArchiver;
     }
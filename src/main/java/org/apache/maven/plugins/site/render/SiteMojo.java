@@ -22,6 +22,10 @@ import javax.inject.Inject;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,8 +33,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
+import org.apache.maven.doxia.site.io.xpp3.SiteXpp3Writer;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
 import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
 import org.apache.maven.doxia.siterenderer.RendererException;
@@ -38,17 +49,22 @@ import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.tools.SiteTool;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.MavenPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.plugins.site.Digests;
+import org.apache.maven.plugins.site.profile.BuildProfiler;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.reporting.exec.MavenReportExecution;
 import org.apache.maven.reporting.exec.MavenReportExecutor;
 import org.apache.maven.shared.utils.logging.MessageBuilder;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
 
 /**
@@ -85,12 +101,117 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
     @Parameter(property = "validate", defaultValue = "false")
     private boolean validate;
 
+    /**
+     * Number of threads used to render Doxia documents. With the default value of <code>1</code>, documents are
+     * rendered one after the other; with a greater value, documents are rendered concurrently, each one with its own
+     * sink and Velocity context, producing the same output. Documents of a same format share their Doxia parser, so
+     * they are parsed one after the other, but merged into the site template concurrently.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "renderThreads", defaultValue = "1")
+    private int renderThreads;
+
+    /**
+     * Number of threads used to generate reports. With the default value of <code>1</code>, reports are generated
+     * one after the other. With a greater value, reports are generated concurrently, each one with its own thread
+     * context class loader, except the reports whose goal is not declared thread-safe by their plugin or is listed in
+     * {@link #notThreadSafeReports}: these are generated one after the other once the concurrent ones are done.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "reportThreads", defaultValue = "1")
+    private int reportThreads;
+
+    /**
+     * Number of locales rendered concurrently. With the default value of <code>1</code>, locales are rendered one
+     * after the other; with a greater value, every locale is rendered on its own thread, with its own rendering
+     * context and output directory. The skin and the report plugins are resolved once for all the locales, and
+     * reports whose goal is not thread-safe (see {@link #notThreadSafeReports}) are never generated concurrently.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "localeThreads", defaultValue = "1")
+    private int localeThreads;
+
+    /**
+     * Whether to skip rendering of Doxia documents unchanged since the previous build. Content hashes of every source
+     * document, and of the inputs shared by all the documents (site model, skin, template properties, encodings), are
+     * stored in a manifest in {@link #renderManifestDirectory}: a document is rendered again only if its source or a
+     * shared input changed, or if its output is missing. Outputs of removed source documents are deleted. Velocity
+     * documents and reports are always rendered.
+     * <p>
+     * The site descriptors, including the menus, are part of the shared inputs. Files read by macros are not hashed:
+     * documents calling the <code>snippet</code>, <code>include</code> or <code>ssi</code> macros are always rendered,
+     * but changes of files read by other macros, like custom ones, are not detected.
+     * </p>
+     * <p>
+     * Note that skipped documents keep their previous publish date, unless
+     * <code>project.build.outputTimestamp</code> is set.
+     * </p>
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "incrementalRendering", defaultValue = "false")
+    private boolean incrementalRendering;
+
+    /**
+     * Directory where the incremental rendering manifests are stored, one per locale.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(defaultValue = "${project.build.directory}/site-render-manifest")
+    private File renderManifestDirectory;
+
+    /**
+     * Reports whose pages are cached between builds. Each entry is either a plugin artifactId, for all the reports of
+     * the plugin, or <code>artifactId:goal</code>, for example <code>maven-project-info-reports-plugin:team</code>.
+     * The content of the pages generated by a listed report is stored in {@link #reportCacheDirectory}, keyed by the
+     * report plugin coordinates and goal, its configuration, the locale and a fingerprint of the project inputs
+     * (project model, dependencies, and the sizes and modification times of sources, resources and compiled classes).
+     * When the key is unchanged, the pages are rendered from the cache without generating the report. Only the latest
+     * pages of each report and locale are kept.
+     * <p>
+     * Only the pages are cached: list only reports that write no other file, like images, scripts or result files
+     * used by other goals, and that depend on no other input, like test results. External reports are never cached.
+     * </p>
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "cachedReports")
+    private List<String> cachedReports;
+
+    /**
+     * Directory where the report pages are cached for {@link #cachedReports}.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "reportCacheDirectory", defaultValue = "${project.build.directory}/site-report-cache")
+    private File reportCacheDirectory;
+
+    /**
+     * File where the build profile is written when {@link #profile} is enabled.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.profile.file", defaultValue = "${project.build.directory}/site-build-profile.json")
+    private File profileFile;
+
+    private ReportCache reportCache;
+
+    private BuildProfiler profiler;
+
+    private ParallelDocumentRenderer documentRenderer;
+
+    private final Object sequentialReportsLock = new Object();
+
     @Inject
     public SiteMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
-            MavenReportExecutor mavenReportExecutor) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+            MavenReportExecutor mavenReportExecutor,
+            MavenPluginManager mavenPluginManager) {
+        super(assembler, siteRenderer, mavenReportExecutor, mavenPluginManager);
     }
 
     /**
@@ -109,20 +230,27 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
         checkInputEncoding();
 
+        if (cachedReports != null && !cachedReports.isEmpty()) {
+            reportCache = new ReportCache(reportCacheDirectory, project);
+        }
+        profiler = newProfiler();
+        documentRenderer = new ParallelDocumentRenderer(
+                siteRenderer, renderThreads, profiler, getParserLocks(renderThreads > 1 || localeThreads > 1));
+
         try {
             List<Locale> localesList = getLocales();
 
-            for (Locale locale : localesList) {
-                getLog().info("Rendering site for "
-                        + buffer().strong(
-                                        (!locale.equals(SiteTool.DEFAULT_LOCALE)
-                                                ? "locale '" + locale + "'"
-                                                : "default locale"))
-                                .build());
-                File outputDirectory = getOutputDirectory(locale);
-                List<MavenReportExecution> reports =
-                        generateReports ? getReports(outputDirectory) : Collections.emptyList();
-                renderLocale(locale, reports, localesList, outputDirectory);
+            if (localeThreads <= 1 || localesList.size() <= 1) {
+                for (Locale locale : localesList) {
+                    logRenderingLocale(locale);
+                    File outputDirectory = getOutputDirectory(locale);
+                    List<MavenReportExecution> reports =
+                            generateReports ? getReports(outputDirectory) : Collections.emptyList();
+                    SiteRenderingContext context = createLocaleRenderingContext(locale, localesList);
+                    renderLocale(locale, context, reports, outputDirectory);
+                }
+            } else {
+                renderLocalesConcurrently(localesList);
             }
         } catch (RendererException e) {
             if (e.getCause() instanceof MavenReportException) {
@@ -132,12 +260,83 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
             throw new MojoExecutionException("Failed to render site", e);
         } catch (IOException e) {
             throw new MojoExecutionException("Error during site generation", e);
+        } finally {
+            writeProfile(profiler, profileFile, mojoExecution.getGoal());
         }
     }
 
-    private void renderLocale(
-            Locale locale, List<MavenReportExecution> reports, List<Locale> supportedLocales, File outputDirectory)
+    /**
+     * Render every locale on its own thread. Reports and rendering contexts are prepared first, one locale after the
+     * other, since building reports involves the Maven plugin manager; the skin and the report plugins are resolved
+     * only once for all the locales.
+     *
+     * @param localesList the locales to render
+     */
+    private void renderLocalesConcurrently(List<Locale> localesList)
             throws IOException, RendererException, MojoFailureException, MojoExecutionException {
+        List<Callable<Void>> tasks = new ArrayList<>(localesList.size());
+        for (Locale locale : localesList) {
+            File outputDirectory = getOutputDirectory(locale);
+            List<MavenReportExecution> reports =
+                    generateReports ? getReports(outputDirectory) : Collections.emptyList();
+            SiteRenderingContext context = createLocaleRenderingContext(locale, localesList);
+            tasks.add(() -> {
+                logRenderingLocale(locale);
+                renderLocale(locale, context, reports, outputDirectory);
+                return null;
+            });
+        }
+
+        getLog().info("Rendering " + localesList.size() + " locales with "
+                + Math.min(localeThreads, localesList.size()) + " threads");
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(localeThreads, localesList.size()), ParallelDocumentRenderer.newThreadFactory("site-locale"));
+        try {
+            List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    for (Future<Void> other : futures) {
+                        other.cancel(true);
+                    }
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RendererException) {
+                        throw (RendererException) cause;
+                    } else if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof MojoExecutionException) {
+                        throw (MojoExecutionException) cause;
+                    } else if (cause instanceof MojoFailureException) {
+                        throw (MojoFailureException) cause;
+                    }
+                    throw new MojoExecutionException("Failed to render site", cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while rendering site", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void logRenderingLocale(Locale locale) {
+        getLog().info("Rendering site for "
+                + buffer().strong(
+                                (!locale.equals(SiteTool.DEFAULT_LOCALE)
+                                        ? "locale '" + locale + "'"
+                                        : "default locale"))
+                        .build());
+    }
+
+    private SiteRenderingContext createLocaleRenderingContext(Locale locale, List<Locale> supportedLocales)
+            throws IOException, MojoFailureException, MojoExecutionException {
         SiteRenderingContext context = createSiteRenderingContext(locale);
         context.addSiteLocales(supportedLocales);
         context.setInputEncoding(getInputEncoding());
@@ -146,22 +345,97 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
         if (validate) {
             getLog().info("Validation is switched on, xml input documents will be validated!");
         }
+        return context;
+    }
 
+    private void renderLocale(
+            Locale locale, SiteRenderingContext context, List<MavenReportExecution> reports, File outputDirectory)
+            throws IOException, RendererException {
         // locate all Doxia documents first
         Map<String, DocumentRenderer> documents = locateDocuments(context, reports, locale);
 
+        if (reportCache != null) {
+            for (DocumentRenderer doc : documents.values()) {
+                if (doc instanceof ReportDocumentRenderer) {
+                    ReportDocumentRenderer reportDoc = (ReportDocumentRenderer) doc;
+                    MavenReportExecution exec = reportDoc.getMavenReportExecution();
+                    if (exec.getGoal() != null
+                            && !exec.getMavenReport().isExternalReport()
+                            && matches(cachedReports, exec)) {
+                        reportDoc.setReportCache(reportCache);
+                    }
+                }
+            }
+        }
+
         // copy resources
-        siteRenderer.copyResources(context, outputDirectory);
+        if (profiler == null) {
+            siteRenderer.copyResources(context, outputDirectory);
+        } else {
+            profiler.record(
+                    "resources",
+                    locale.equals(SiteTool.DEFAULT_LOCALE) ? "default" : locale.toString(),
+                    () -> siteRenderer.copyResources(context, outputDirectory));
+        }
 
         getLog().info(buffer().a("Rendering content with ")
                 .strong(context.getSkin().getId() + " skin")
                 .build());
 
+        Collection<DocumentRenderer> documentsToRender = documents.values();
+        IncrementalRenderer incrementalRenderer = null;
+        if (incrementalRendering) {
+            incrementalRenderer = new IncrementalRenderer(
+                    new File(
+                            renderManifestDirectory,
+                            (locale.equals(SiteTool.DEFAULT_LOCALE) ? "default" : locale.toString()) + ".properties"),
+                    getGlobalRenderingHash(context),
+                    getLog());
+            documentsToRender = incrementalRenderer.select(documentsToRender, outputDirectory);
+        }
+
         // and finally render Doxia documents
-        List<DocumentRenderer> nonDoxiaDocuments = renderDoxiaDocuments(documents.values(), context, outputDirectory);
+        List<DocumentRenderer> nonDoxiaDocuments = renderDoxiaDocuments(documentsToRender, context, outputDirectory);
 
         // then non-Doxia documents (e.g. reports)
         renderNonDoxiaDocuments(nonDoxiaDocuments, context, outputDirectory);
+
+        if (incrementalRenderer != null) {
+            incrementalRenderer.store();
+        }
+    }
+
+    /**
+     * Compute the hash of the inputs shared by every document of a locale: the site model, once the reports menus
+     * are populated, the skin, the template properties including the project model, the encodings and the plugin
+     * version.
+     *
+     * @param context the site rendering context
+     * @return the hash
+     * @throws IOException in case of IO issue
+     */
+    private String getGlobalRenderingHash(SiteRenderingContext context) throws IOException {
+        MessageDigest digest = Digests.newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(NullOutputStream.INSTANCE, digest), UTF_8)) {
+            writer.write(mojoExecution.getVersion() + '\n');
+            writer.write(context.getLocale() + "\n" + context.getInputEncoding() + '\n' + context.getOutputEncoding()
+                    + '\n' + context.isValidate() + '\n' + context.getPublishDate() + '\n');
+            writer.write(context.getSkin().getId() + '\n');
+
+            new SiteXpp3Writer().write(writer, context.getSiteModel());
+
+            for (Map.Entry<String, ?> entry : new TreeMap<>(context.getTemplateProperties()).entrySet()) {
+                writer.write(entry.getKey() + '=');
+                if (entry.getValue() instanceof MavenProject) {
+                    new MavenXpp3Writer().write(writer, ((MavenProject) entry.getValue()).getModel());
+                } else {
+                    writer.write(String.valueOf(entry.getValue()));
+                }
+                writer.write('\n');
+            }
+        }
+        Digests.update(digest, context.getSkin().getFile());
+        return Digests.toHex(digest.digest());
     }
 
     /**
@@ -229,7 +503,7 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
             getLog().info(mb.build());
 
-            siteRenderer.render(doxiaDocuments, context, outputDirectory);
+            documentRenderer.render(doxiaDocuments, context, outputDirectory);
         }
 
         if (generatedDoxiaDocuments.size() > 0) {
@@ -251,7 +525,7 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
             getLog().info(mb.build());
 
-            siteRenderer.render(generatedDoxiaDocuments, context, outputDirectory);
+            documentRenderer.render(generatedDoxiaDocuments, context, outputDirectory);
         }
 
         return nonDoxiaDocuments;
@@ -296,7 +570,64 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
                 getLog().info(mb.build());
             }
 
-            siteRenderer.render(documents, context, outputDirectory);
+            renderReports(documents, context, outputDirectory);
+        }
+    }
+
+    /**
+     * Render non-Doxia documents, generating thread-safe reports concurrently if {@link #reportThreads} is greater
+     * than <code>1</code>. Otherwise documents are rendered in their original order.
+     *
+     * @param documents a collection of documents containing non-Doxia source files
+     */
+    private void renderReports(
+            Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        if (reportThreads <= 1 && localeThreads <= 1) {
+            siteRenderer.render(ProfiledDocumentRenderer.profile(documents, profiler), context, outputDirectory);
+            return;
+        }
+
+        if (reportThreads <= 1) {
+            // only locales are rendered concurrently
+            for (DocumentRenderer doc : documents) {
+                Collection<DocumentRenderer> single =
+                        ProfiledDocumentRenderer.profile(Collections.singletonList(doc), profiler);
+                if (doc instanceof ReportDocumentRenderer
+                        && isThreadSafe(((ReportDocumentRenderer) doc).getMavenReportExecution())) {
+                    siteRenderer.render(single, context, outputDirectory);
+                } else {
+                    synchronized (sequentialReportsLock) {
+                        siteRenderer.render(single, context, outputDirectory);
+                    }
+                }
+            }
+            return;
+        }
+
+        List<DocumentRenderer> concurrentDocuments = new ArrayList<>();
+        List<DocumentRenderer> sequentialDocuments = new ArrayList<>();
+        for (DocumentRenderer doc : documents) {
+            if (doc instanceof ReportDocumentRenderer
+                    && isThreadSafe(((ReportDocumentRenderer) doc).getMavenReportExecution())) {
+                concurrentDocuments.add(doc);
+            } else {
+                sequentialDocuments.add(doc);
+            }
+        }
+
+        if (!concurrentDocuments.isEmpty() && reportThreads > 1) {
+            getLog().info("Generating " + concurrentDocuments.size() + " thread-safe reports with "
+                    + Math.min(reportThreads, concurrentDocuments.size()) + " threads");
+        }
+
+        new ParallelDocumentRenderer(siteRenderer, reportThreads, profiler)
+                .render(concurrentDocuments, context, outputDirectory);
+
+        // reports not declared thread-safe are never run concurrently, even for different locales
+        synchronized (sequentialReportsLock) {
+            siteRenderer.render(
+                    ProfiledDocumentRenderer.profile(sequentialDocuments, profiler), context, outputDirectory);
         }
     }
 
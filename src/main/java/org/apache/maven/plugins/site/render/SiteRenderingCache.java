@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import javax.inject.Named;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.SessionScoped;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.site.Skin;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+
+/**
+ * Cache of the work done to create site rendering contexts, shared by all the site rendering mojos of a Maven session:
+ * resolved skin artifacts, template class loaders of skins and prepared site models. Without it, every locale of every
+ * module resolves the skin again, and loads its templates with a new class loader.
+ *
+ * @since 3.22.1
+ */
+@Named
+@SessionScoped
+class SiteRenderingCache {
+    private final Map<String, Artifact> skinArtifacts = new ConcurrentHashMap<>();
+
+    private final Map<File, ClassLoader> templateClassLoaders = new ConcurrentHashMap<>();
+
+    private final Map<String, SiteModel> siteModels = new ConcurrentHashMap<>();
+
+    private static String getKey(Skin skin) {
+        return skin.getGroupId() + ':' + skin.getArtifactId() + ':' + skin.getVersion();
+    }
+
+    /**
+     * @param skin the skin declared in a site model
+     * @return the already resolved skin artifact, or <code>null</code>
+     */
+    Artifact getSkinArtifact(Skin skin) {
+        return skinArtifacts.get(getKey(skin));
+    }
+
+    void putSkinArtifact(Skin skin, Artifact skinArtifact) {
+        skinArtifacts.put(getKey(skin), skinArtifact);
+    }
+
+    /**
+     * Create a site rendering context for a skin with
+     * {@link SiteRenderer#createContextForSkin(Artifact, Map, SiteModel, String, Locale)}, which checks the skin, but
+     * reusing the template class loader of the first context created for the same skin file: the templates it loads
+     * are then shared by every context.
+     *
+     * @param siteRenderer the site renderer
+     * @param skin the resolved skin artifact
+     * @param templateProperties the template properties
+     * @param siteModel the site model
+     * @param defaultTitle the default title
+     * @param locale the locale
+     * @return the site rendering context
+     * @throws IOException if the skin can't be read
+     * @throws RendererException if the skin is not valid
+     */
+    SiteRenderingContext createContextForSkin(
+            SiteRenderer siteRenderer,
+            Artifact skin,
+            Map<String, ?> templateProperties,
+            SiteModel siteModel,
+            String defaultTitle,
+            Locale locale)
+            throws IOException, RendererException {
+        SiteRenderingContext context =
+                siteRenderer.createContextForSkin(skin, templateProperties, siteModel, defaultTitle, locale);
+        ClassLoader templateClassLoader = context.getTemplateClassLoader();
+        ClassLoader cached = templateClassLoaders.putIfAbsent(skin.getFile(), templateClassLoader);
+        if (cached != null && cached != templateClassLoader) {
+            if (templateClassLoader instanceof Closeable) {
+                ((Closeable) templateClassLoader).close();
+            }
+            context.setTemplateClassLoader(cached);
+        }
+        return context;
+    }
+
+    /**
+     * @param key the key, describing the inputs the site model is built from
+     * @return a copy of the cached site model, or <code>null</code>
+     */
+    SiteModel getSiteModel(String key) {
+        SiteModel siteModel = siteModels.get(key);
+        return (siteModel == null) ? null : siteModel.clone();
+    }
+
+    void putSiteModel(String key, SiteModel siteModel) {
+        siteModels.put(key, siteModel.clone());
+    }
+}
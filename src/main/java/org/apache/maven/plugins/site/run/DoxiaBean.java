@@ -18,7 +18,9 @@
  */
 package org.apache.maven.plugins.site.run;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
@@ -34,6 +36,8 @@ public class DoxiaBean {
 
     private Map<String, DocumentRenderer> documents;
 
+    private Set<String> notThreadSafeDocuments = Collections.emptySet();
+
     /**
      * @param context context
      * @param documents documents
@@ -58,4 +62,16 @@ public class DoxiaBean {
     public void setDocuments(Map<String, DocumentRenderer> documents) {
         this.documents = documents;
     }
+
+    /**
+     * @return the paths of the documents that must not be rendered concurrently with other ones
+     * @since 3.22.1
+     */
+    public Set<String> getNotThreadSafeDocuments() {
+        return notThreadSafeDocuments;
+    }
+
+    public void setNotThreadSafeDocuments(Set<String> notThreadSafeDocuments) {
+        this.notThreadSafeDocuments = notThreadSafeDocuments;
+    }
 }
@@ -26,21 +26,42 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
 import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
 import org.apache.maven.doxia.siterenderer.RendererException;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugins.site.render.ParserLocks;
 import org.apache.maven.plugins.site.render.ReportDocumentRenderer;
 import org.apache.maven.plugins.site.render.SitePluginReportDocumentRenderer;
 import org.eclipse.jetty.http.MimeTypes;
@@ -61,6 +82,36 @@ public class DoxiaFilter implements Filter {
 
     public static final String LOCALES_LIST_KEY = "localesList";
 
+    /**
+     * Maximum size in bytes of the cache of rendered pages, as a {@link Long}: no pages are cached if missing or zero.
+     *
+     * @since 3.22.1
+     */
+    public static final String PAGE_CACHE_SIZE_KEY = "pageCacheSize";
+
+    /**
+     * Whether every page is rendered in the background to fill the cache of rendered pages, as a {@link Boolean}.
+     *
+     * @since 3.22.1
+     */
+    public static final String PRERENDER_KEY = "prerender";
+
+    /**
+     * Live reload client snippet to inject in the HTML pages, as a {@link String}: nothing is injected if missing.
+     *
+     * @see LiveReloadServlet#getSnippet(String)
+     * @since 3.22.1
+     */
+    public static final String LIVE_RELOAD_SNIPPET_KEY = "liveReloadSnippet";
+
+    /**
+     * Locks on Doxia parsers, as {@link ParserLocks}, shared with the other site rendering mojos of the Maven session:
+     * new locks are created if missing.
+     *
+     * @since 3.22.1
+     */
+    public static final String PARSER_LOCKS_KEY = "parserLocks";
+
     private ServletContext servletContext;
 
     private File outputDirectory;
@@ -71,6 +122,38 @@ public class DoxiaFilter implements Filter {
 
     private List<Locale> localesList;
 
+    private PageCache pageCache;
+
+    private String liveReloadSnippet;
+
+    /**
+     * Locks on Doxia parsers: concurrent requests never render pages of a same format at the same time.
+     */
+    private ParserLocks parserLocks;
+
+    /**
+     * Lock held while rendering a report that is not thread-safe.
+     */
+    private final Object notThreadSafeReportsLock = new Object();
+
+    /**
+     * Renderings in progress, keyed like cached pages: a page is rendered once for concurrent requests, while different
+     * pages are rendered concurrently.
+     */
+    private final ConcurrentMap<String, CompletableFuture<PageCache.Page>> renderings = new ConcurrentHashMap<>();
+
+    private ExecutorService prerenderExecutor;
+
+    /**
+     * Count of requests rendering a page, also the monitor pre-rendering waits on while it is not zero.
+     */
+    private final AtomicInteger renderingRequests = new AtomicInteger();
+
+    /**
+     * Set once the page cache is full, to stop pre-rendering instead of evicting pre-rendered pages.
+     */
+    private volatile boolean prerenderStopped;
+
     /**
      * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
      */
@@ -85,6 +168,145 @@ public class DoxiaFilter implements Filter {
         i18nDoxiaContexts = (Map<String, DoxiaBean>) servletContext.getAttribute(I18N_DOXIA_CONTEXTS_KEY);
 
         localesList = (List<Locale>) servletContext.getAttribute(LOCALES_LIST_KEY);
+
+        liveReloadSnippet = (String) servletContext.getAttribute(LIVE_RELOAD_SNIPPET_KEY);
+
+        parserLocks = (ParserLocks) servletContext.getAttribute(PARSER_LOCKS_KEY);
+        if (parserLocks == null) {
+            parserLocks = new ParserLocks();
+        }
+
+        Long pageCacheSize = (Long) servletContext.getAttribute(PAGE_CACHE_SIZE_KEY);
+        if (pageCacheSize != null && pageCacheSize > 0) {
+            pageCache = new PageCache(pageCacheSize);
+        }
+
+        if (Boolean.TRUE.equals(servletContext.getAttribute(PRERENDER_KEY))) {
+            if (pageCache == null) {
+                servletContext.log("Pages are not pre-rendered: the page cache is disabled");
+            } else {
+                prerender();
+            }
+        }
+    }
+
+    /**
+     * Render every cached page on a pool of background threads, locale by locale in the order of the site menus.
+     * Requests don't wait for the pool: a requested page is rendered right away on the request thread, and the pool
+     * doesn't start rendering another page until no request is rendering a page. Pre-rendering stops once the page
+     * cache is full, so that the first pages, linked from the menus, stay in the cache.
+     */
+    private void prerender() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        prerenderExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "site-prerender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger remaining = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+        long start = System.nanoTime();
+        for (Locale locale : localesList) {
+            String localeWanted = locale.toString();
+            String beanKey = locale.equals(SiteTool.DEFAULT_LOCALE) ? "default" : localeWanted;
+            DoxiaBean doxiaBean = i18nDoxiaContexts.get(beanKey);
+            if (doxiaBean == null) {
+                continue;
+            }
+            Map<String, DocumentRenderer> documents = doxiaBean.getDocuments();
+            for (String path : getRenderOrder(doxiaBean.getContext().getSiteModel(), documents.keySet())) {
+                DocumentRenderer docRenderer = documents.get(path);
+                if (!isCached(docRenderer)) {
+                    continue;
+                }
+                tasks.add(() -> {
+                    try {
+                        awaitRenderingRequests();
+                        if (!prerenderStopped) {
+                            getPage(path, localeWanted, docRenderer, doxiaBean, true);
+                            rendered.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (IOException | ServletException | RuntimeException e) {
+                        servletContext.log("Unable to pre-render " + localeWanted + '/' + path, e);
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        servletContext.log("Pre-rendered " + rendered.get() + " pages in "
+                                + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s"
+                                + (prerenderStopped ? ", the page cache is full" : ""));
+                    }
+                });
+            }
+        }
+        remaining.set(tasks.size());
+        tasks.forEach(prerenderExecutor::execute);
+    }
+
+    /**
+     * Wait until no request is rendering a page.
+     */
+    private void awaitRenderingRequests() throws InterruptedException {
+        synchronized (renderingRequests) {
+            while (renderingRequests.get() > 0) {
+                renderingRequests.wait();
+            }
+        }
+    }
+
+    /**
+     * Order the pages of a locale for pre-rendering: pages linked from the site menus first, in menu order, then the
+     * other pages by path.
+     *
+     * @param siteModel the site model, or <code>null</code>
+     * @param paths the paths of the pages
+     * @return the ordered paths
+     */
+    static List<String> getRenderOrder(SiteModel siteModel, Collection<String> paths) {
+        Set<String> order = new LinkedHashSet<>();
+        if (siteModel != null) {
+            for (Menu menu : siteModel.getMenus()) {
+                addMenuItems(menu.getItems(), paths, order);
+            }
+        }
+        order.addAll(new TreeSet<>(paths));
+        return new ArrayList<>(order);
+    }
+
+    private static void addMenuItems(List<MenuItem> items, Collection<String> paths, Set<String> order) {
+        for (MenuItem item : items) {
+            String path = getPath(item.getHref());
+            if (path != null && paths.contains(path)) {
+                order.add(path);
+            }
+            addMenuItems(item.getItems(), paths, order);
+        }
+    }
+
+    /**
+     * @return the path of a page of the site linked by a menu item, or <code>null</code> for an absolute link
+     */
+    private static String getPath(String href) {
+        if (href == null || href.contains(":")) {
+            return null;
+        }
+        String path = href;
+        int index = path.indexOf('#');
+        if (index >= 0) {
+            path = path.substring(0, index);
+        }
+        index = path.indexOf('?');
+        if (index >= 0) {
+            path = path.substring(0, index);
+        }
+        while (path.startsWith("./") || path.startsWith("/")) {
+            path = path.substring(path.indexOf('/') + 1);
+        }
+        return (path.isEmpty() || path.endsWith("/")) ? path + "index.html" : path;
     }
 
     /**
@@ -108,7 +330,6 @@ public class DoxiaFilter implements Filter {
         path = path.substring(1);
 
         // Handle locale request
-        SiteRenderingContext context;
         Map<String, DocumentRenderer> documents;
 
         String localeWanted = "";
@@ -131,44 +352,234 @@ public class DoxiaFilter implements Filter {
                 throw new ServletException("No Doxia bean found for the default locale");
             }
         }
-        context = doxiaBean.getContext();
         documents = doxiaBean.getDocuments();
 
         // ----------------------------------------------------------------------
         // Handle report and documents
         // ----------------------------------------------------------------------
         if (documents.containsKey(path)) {
+            if (pageCache == null) {
+                stream(path, localeWanted, documents.get(path), doxiaBean, servletResponse);
+                return;
+            }
+
+            PageCache.Page page;
+            synchronized (renderingRequests) {
+                renderingRequests.incrementAndGet();
+            }
             try {
-                DocumentRenderer docRenderer = documents.get(path);
-                logDocumentRenderer(path, localeWanted, docRenderer);
-                String outputName = docRenderer.getOutputName();
-                String contentType = MimeTypes.getDefaultMimeByExtension(outputName);
-                if (contentType != null) {
-                    servletResponse.setContentType(contentType);
-                }
-                docRenderer.renderDocument(servletResponse.getWriter(), siteRenderer, context);
-
-                if (docRenderer instanceof ReportDocumentRenderer) {
-                    ReportDocumentRenderer reportDocumentRenderer = (ReportDocumentRenderer) docRenderer;
-                    if (reportDocumentRenderer.isExternalReport()) {
-                        Path externalReportFile = outputDirectory.toPath().resolve(outputName);
-                        servletResponse.reset();
-                        if (contentType != null) {
-                            servletResponse.setContentType(contentType);
-                        }
-                        Files.copy(externalReportFile, servletResponse.getOutputStream());
+                page = getPage(path, localeWanted, documents.get(path), doxiaBean, false);
+            } finally {
+                synchronized (renderingRequests) {
+                    if (renderingRequests.decrementAndGet() == 0) {
+                        renderingRequests.notifyAll();
                     }
                 }
-
-                return;
-            } catch (RendererException e) {
-                throw new ServletException(e);
             }
+            send(page, req, (HttpServletResponse) servletResponse);
+            return;
         }
 
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
+    /**
+     * Get a page from the cache, or render it. Concurrent requests for the same page wait for a single rendering.
+     * A pre-rendered page is cached only if it doesn't evict other pages, otherwise pre-rendering is stopped.
+     */
+    private PageCache.Page getPage(
+            String path, String locale, DocumentRenderer docRenderer, DoxiaBean doxiaBean, boolean prerendering)
+            throws IOException, ServletException {
+        String key = locale + '/' + path;
+        boolean cached = isCached(docRenderer);
+        PageCache.Page page = cached ? pageCache.get(key) : null;
+        if (page != null) {
+            return page;
+        }
+
+        CompletableFuture<PageCache.Page> rendering = new CompletableFuture<>();
+        CompletableFuture<PageCache.Page> inFlight = renderings.putIfAbsent(key, rendering);
+        if (inFlight != null) {
+            try {
+                return inFlight.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the rendering of " + key, e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+        }
+
+        try {
+            // the page may have been cached by a rendering that completed since the cache was checked
+            page = cached ? pageCache.get(key) : null;
+            if (page == null) {
+                page = render(path, locale, docRenderer, doxiaBean);
+                if (cached && !prerendering) {
+                    pageCache.put(key, page);
+                } else if (cached && !pageCache.putIfRoom(key, page)) {
+                    prerenderStopped = true;
+                }
+            }
+            rendering.complete(page);
+            return page;
+        } catch (RendererException e) {
+            rendering.completeExceptionally(e);
+            throw new ServletException(e);
+        } catch (IOException | RuntimeException e) {
+            rendering.completeExceptionally(e);
+            throw e;
+        } finally {
+            renderings.remove(key, rendering);
+        }
+    }
+
+    /**
+     * Check if a rendered page is cached: only Doxia documents are, since their source is the only file known to be
+     * used to render them. Reports, summaries and Velocity documents depend on other inputs, so they are always
+     * rendered again.
+     */
+    private boolean isCached(DocumentRenderer docRenderer) {
+        return pageCache != null
+                && docRenderer instanceof DoxiaDocumentRenderer
+                && !docRenderer.getRenderingContext().getInputPath().endsWith(".vm");
+    }
+
+    private PageCache.Page render(String path, String locale, DocumentRenderer docRenderer, DoxiaBean doxiaBean)
+            throws IOException, RendererException {
+        logDocumentRenderer(path, locale, docRenderer);
+        SiteRenderingContext context = doxiaBean.getContext();
+        long time = System.currentTimeMillis();
+
+        // the source of the page, which invalidates the cached page once modified
+        List<File> files = new ArrayList<>();
+        if (docRenderer instanceof DoxiaDocumentRenderer) {
+            DocumentRenderingContext renderingContext = docRenderer.getRenderingContext();
+            files.add(new File(renderingContext.getBasedir(), renderingContext.getInputPath()));
+        }
+
+        String outputName = docRenderer.getOutputName();
+        String contentType = MimeTypes.getDefaultMimeByExtension(outputName);
+        StringWriter writer = new StringWriter();
+        renderDocument(path, docRenderer, doxiaBean, writer);
+
+        if (docRenderer instanceof ReportDocumentRenderer
+                && ((ReportDocumentRenderer) docRenderer).isExternalReport()) {
+            Path externalReportFile = outputDirectory.toPath().resolve(outputName);
+            return new PageCache.Page(Files.readAllBytes(externalReportFile), contentType, time, files);
+        }
+
+        String content = writer.toString();
+        if (liveReloadSnippet != null && "text/html".equals(contentType)) {
+            content = LiveReloadServlet.inject(content, liveReloadSnippet);
+        }
+        String encoding = (context.getOutputEncoding() != null) ? context.getOutputEncoding() : "UTF-8";
+        if (contentType != null && contentType.startsWith("text/")) {
+            contentType += ";charset=" + encoding;
+        }
+        return new PageCache.Page(content.getBytes(encoding), contentType, time, files);
+    }
+
+    /**
+     * Render a page straight to the response, when pages are not cached: the page is neither buffered nor sent with
+     * validators, and the live reload snippet is appended after the page.
+     */
+    private void stream(
+            String path, String locale, DocumentRenderer docRenderer, DoxiaBean doxiaBean, ServletResponse response)
+            throws IOException, ServletException {
+        logDocumentRenderer(path, locale, docRenderer);
+        String outputName = docRenderer.getOutputName();
+        String contentType = MimeTypes.getDefaultMimeByExtension(outputName);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        try {
+            renderDocument(path, docRenderer, doxiaBean, response.getWriter());
+        } catch (RendererException e) {
+            throw new ServletException(e);
+        }
+
+        if (docRenderer instanceof ReportDocumentRenderer
+                && ((ReportDocumentRenderer) docRenderer).isExternalReport()) {
+            Path externalReportFile = outputDirectory.toPath().resolve(outputName);
+            response.reset();
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            Files.copy(externalReportFile, response.getOutputStream());
+        } else if (liveReloadSnippet != null && "text/html".equals(contentType)) {
+            response.getWriter().write(liveReloadSnippet);
+        }
+    }
+
+    /**
+     * Render a document while holding the lock of its parser, and the lock of the reports that are not thread-safe if
+     * needed.
+     */
+    private void renderDocument(String path, DocumentRenderer docRenderer, DoxiaBean doxiaBean, Writer writer)
+            throws IOException, RendererException {
+        SiteRenderingContext context = doxiaBean.getContext();
+        DocumentRenderer lockedRenderer = parserLocks.lock(docRenderer);
+        if (doxiaBean.getNotThreadSafeDocuments().contains(path)) {
+            synchronized (notThreadSafeReportsLock) {
+                lockedRenderer.renderDocument(writer, siteRenderer, context);
+            }
+        } else {
+            lockedRenderer.renderDocument(writer, siteRenderer, context);
+        }
+    }
+
+    /**
+     * Send a page, or a <code>304 Not Modified</code> response if the client has the same page already.
+     */
+    private static void send(PageCache.Page page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader("ETag", page.getEtag());
+        response.setDateHeader("Last-Modified", page.getLastModified());
+        // pages change as soon as their source is edited
+        response.setHeader("Cache-Control", "no-cache");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = (ifNoneMatch != null)
+                ? matches(ifNoneMatch, page.getEtag())
+                : request.getDateHeader("If-Modified-Since") >= page.getLastModified();
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (page.getContentType() != null) {
+            response.setContentType(page.getContentType());
+        }
+        response.setContentLength(page.getContent().length);
+        response.getOutputStream().write(page.getContent());
+    }
+
+    /**
+     * Check if an <code>If-None-Match</code> header matches an entity-tag, using the weak comparison required for this
+     * header.
+     *
+     * @param ifNoneMatch the header value: <code>*</code> or a comma-separated list of entity-tags
+     * @param etag the entity-tag of the page
+     * @return <code>true</code> if one of the entity-tags is the given one
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void logDocumentRenderer(String path, String locale, DocumentRenderer docRenderer) {
         String source;
         if (docRenderer instanceof DoxiaDocumentRenderer) {
@@ -197,5 +608,9 @@ public class DoxiaFilter implements Filter {
      * @see javax.servlet.Filter#destroy()
      */
     @Override
-    public void destroy() {}
+    public void destroy() {
+        if (prerenderExecutor != null) {
+            prerenderExecutor.shutdownNow();
+        }
+    }
 }
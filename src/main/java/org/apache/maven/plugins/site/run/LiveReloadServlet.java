@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-sent events endpoint telling the browsers which pages were rendered again, so that open pages reload
+ * themselves. Each event lists the paths of the pages relative to the site root, one per <code>data</code> line: the
+ * client snippet injected in the pages reloads the page if its path, relative to the server root where the site is
+ * served, is one of them.
+ *
+ * @since 3.22.1
+ */
+public class LiveReloadServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Path of the endpoint.
+     */
+    public static final String PATH = "/.site-live-reload";
+
+    private final transient Set<AsyncContext> clients = ConcurrentHashMap.newKeySet();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        // no CORS header: only the pages served with the endpoint, from the same origin, may listen to it
+        response.setHeader("Cache-Control", "no-cache");
+
+        AsyncContext client = request.startAsync();
+        client.setTimeout(0);
+        client.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                clients.remove(client);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                clients.remove(client);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                clients.remove(client);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+        clients.add(client);
+        send(client, ": connected\n\n");
+    }
+
+    /**
+     * Tell the connected browsers that pages were rendered again.
+     *
+     * @param paths the paths of the pages, relative to the site root
+     */
+    public void notify(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        StringBuilder event = new StringBuilder();
+        for (String path : paths) {
+            event.append("data: ").append(path).append('\n');
+        }
+        event.append('\n');
+        for (AsyncContext client : clients) {
+            send(client, event.toString());
+        }
+    }
+
+    /**
+     * @return the count of connected browsers
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void destroy() {
+        for (AsyncContext client : clients) {
+            client.complete();
+        }
+        clients.clear();
+    }
+
+    private void send(AsyncContext client, String event) {
+        // events are written by the request thread and by the thread watching files
+        synchronized (client) {
+            try {
+                OutputStream out = client.getResponse().getOutputStream();
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } catch (IOException | IllegalStateException e) {
+                // the browser went away
+                clients.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Get the client snippet to inject in the pages, served at the root of the server.
+     *
+     * @param endpoint the URL of the endpoint
+     * @return the script element
+     */
+    public static String getSnippet(String endpoint) {
+        return "<script>(function(){var s=new EventSource('" + endpoint + "');"
+                + "s.onmessage=function(e){var p=decodeURI(location.pathname).substring(1);"
+                + "if(p==''||p.charAt(p.length-1)=='/')p+='index.html';"
+                + "var d=e.data.split('\\n');for(var i=0;i<d.length;i++){"
+                + "if(p==d[i]){location.reload();return;}}};})();</script>";
+    }
+
+    /**
+     * Inject the client snippet at the end of the body of a page.
+     *
+     * @param html the page
+     * @param snippet the client snippet
+     * @return the page with the snippet
+     */
+    public static String inject(String html, String snippet) {
+        int index = html.toLowerCase(Locale.ROOT).lastIndexOf("</body>");
+        return (index < 0) ? html + snippet : html.substring(0, index) + snippet + html.substring(index);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory cache of the pages rendered by {@link DoxiaFilter}, keyed by locale and path, with a least recently used
+ * eviction once the total size of the pages exceeds a maximum. A page records the files it was rendered from, like its
+ * Doxia source: it is discarded as soon as one of them is modified.
+ *
+ * @since 3.22.1
+ */
+class PageCache {
+    private final long maxBytes;
+
+    private final Map<String, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    /**
+     * A rendered page.
+     */
+    static final class Page {
+        private final byte[] content;
+
+        private final String contentType;
+
+        private final String etag;
+
+        private final long lastModified;
+
+        private final List<File> files;
+
+        private final long[] stamps;
+
+        /**
+         * @param content the rendered content
+         * @param contentType the content type, or <code>null</code>
+         * @param lastModified the time of the rendering
+         * @param files the files the page was rendered from
+         */
+        Page(byte[] content, String contentType, long lastModified, Collection<File> files) {
+            this.content = content;
+            this.contentType = contentType;
+            // HTTP dates have a precision of one second
+            this.lastModified = lastModified - lastModified % 1000;
+            this.files = new ArrayList<>(files);
+            this.stamps = new long[this.files.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = stamp(this.files.get(i));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length);
+            this.etag = "\"" + Long.toHexString(crc.getValue()) + '-' + Integer.toHexString(content.length) + '"';
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return <code>true</code> if none of the files of the page was modified since it was rendered
+         */
+        boolean isUpToDate() {
+            for (int i = 0; i < stamps.length; i++) {
+                if (stamp(files.get(i)) != stamps[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long stamp(File file) {
+            // a missing file has a zero length and modification time
+            return file.lastModified() * 31 + file.length();
+        }
+    }
+
+    /**
+     * @param maxBytes the maximum total size of the cached pages
+     */
+    PageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param key the key of the page
+     * @return the page if it is cached and up to date, otherwise <code>null</code>
+     */
+    synchronized Page get(String key) {
+        Page page = pages.get(key);
+        if (page != null && !page.isUpToDate()) {
+            remove(key);
+            return null;
+        }
+        return page;
+    }
+
+    /**
+     * Cache a page, evicting the least recently used pages if the cache gets too large.
+     *
+     * @param key the key of the page
+     * @param page the page
+     */
+    synchronized void put(String key, Page page) {
+        remove(key);
+        if (page.content.length > maxBytes) {
+            return;
+        }
+        pages.put(key, page);
+        bytes += page.content.length;
+        Iterator<Page> eldest = pages.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().content.length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Cache a page only if it fits in the cache without evicting other pages.
+     *
+     * @param key the key of the page
+     * @param page the page
+     * @return <code>true</code> if the page is cached, <code>false</code> if the cache is full
+     */
+    synchronized boolean putIfRoom(String key, Page page) {
+        Page previous = pages.get(key);
+        long size = bytes - ((previous == null) ? 0 : previous.content.length) + page.content.length;
+        if (size > maxBytes) {
+            return false;
+        }
+        put(key, page);
+        return true;
+    }
+
+    synchronized int size() {
+        return pages.size();
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void remove(String key) {
+        Page removed = pages.remove(key);
+        if (removed != null) {
+            bytes -= removed.content.length;
+        }
+    }
+}
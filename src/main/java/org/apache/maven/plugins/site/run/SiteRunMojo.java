@@ -25,26 +25,39 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.MavenPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.plugins.site.render.AbstractSiteRenderingMojo;
+import org.apache.maven.plugins.site.render.DirectoryWatcher;
+import org.apache.maven.plugins.site.render.ReportDocumentRenderer;
 import org.apache.maven.reporting.exec.MavenReportExecution;
 import org.apache.maven.reporting.exec.MavenReportExecutor;
 import org.codehaus.plexus.util.IOUtil;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
@@ -58,6 +71,17 @@ import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
  */
 @Mojo(name = "run", requiresDependencyResolution = ResolutionScope.TEST, requiresReports = true)
 public class SiteRunMojo extends AbstractSiteRenderingMojo {
+    /**
+     * Time in milliseconds without file system events that ends a batch of changes, with {@link #liveReload}.
+     */
+    private static final long LIVE_RELOAD_QUIET_PERIOD = 100;
+
+    /**
+     * Interval in milliseconds between two scans of the Doxia sources where native file system events are not
+     * available, with {@link #liveReload}.
+     */
+    private static final long LIVE_RELOAD_INTERVAL = 500;
+
     /**
      * Where to create the dummy web application.
      */
@@ -76,12 +100,50 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
     @Parameter(property = "port", defaultValue = "8080")
     private int port;
 
+    /**
+     * The maximum size in megabytes of the cache of rendered pages, <code>0</code> to render every page on each
+     * request, straight to the response. Only Doxia documents are cached, and a cached page is rendered again once
+     * its source is modified: reports, Velocity documents and category summaries are always rendered again. Changes
+     * to files included by macros, like <code>snippet</code>, to the site descriptor or to the skin are not detected:
+     * restart the server to see them. Pages are sent with <code>ETag</code> and <code>Last-Modified</code> headers
+     * only when the cache is enabled.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.run.cacheSize", defaultValue = "0")
+    private int cacheSize;
+
+    /**
+     * Render every cached page in the background once the server is started, in the order of the site menus, so that
+     * even the first visit of a page is served from the page cache. A requested page is rendered right away, and the
+     * background rendering pauses while requests are rendered. It stops once the page cache is full. Ignored if the
+     * page cache is disabled with <code>cacheSize</code> <code>0</code>.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.run.prerender", defaultValue = "false")
+    private boolean prerender;
+
+    /**
+     * Make the open pages reload themselves as soon as their Doxia source is modified, through a server-sent events
+     * endpoint and a script injected in the pages.
+     *
+     * @since 3.22.1
+     */
+    @Parameter(property = "maven.site.run.liveReload", defaultValue = "false")
+    private boolean liveReload;
+
+    private Map<String, DoxiaBean> i18nDoxiaContexts;
+
+    private LiveReloadServlet liveReloadServlet;
+
     @Inject
     public SiteRunMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
-            MavenReportExecutor mavenReportExecutor) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+            MavenReportExecutor mavenReportExecutor,
+            MavenPluginManager mavenPluginManager) {
+        super(assembler, siteRenderer, mavenReportExecutor, mavenPluginManager);
     }
 
     /**
@@ -107,6 +169,25 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
 
         getLog().info(buffer().a("Started Jetty on ").strong(server.getURI()).build());
 
+        if (liveReload) {
+            try {
+                DirectoryWatcher watcher = watchSources();
+                // Jetty is stopped at shutdown, or when its thread pool is stopped
+                server.addLifeCycleListener(new AbstractLifeCycle.AbstractLifeCycleListener() {
+                    @Override
+                    public void lifeCycleStopped(LifeCycle event) {
+                        try {
+                            watcher.close();
+                        } catch (IOException e) {
+                            getLog().debug("Unable to stop watching the site sources", e);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to watch the site sources", e);
+            }
+        }
+
         // Watch it
         try {
             server.getThreadPool().join();
@@ -131,6 +212,17 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
         webapp.setResourceBase(tempWebappDirectory.getAbsolutePath());
         webapp.setAttribute(DoxiaFilter.OUTPUT_DIRECTORY_KEY, tempWebappDirectory);
         webapp.setAttribute(DoxiaFilter.SITE_RENDERER_KEY, siteRenderer);
+        webapp.setAttribute(DoxiaFilter.PAGE_CACHE_SIZE_KEY, cacheSize * 1024L * 1024L);
+        webapp.setAttribute(DoxiaFilter.PRERENDER_KEY, prerender);
+        webapp.setAttribute(DoxiaFilter.PARSER_LOCKS_KEY, getParserLocks(true));
+        if (liveReload) {
+            liveReloadServlet = new LiveReloadServlet();
+            ServletHolder liveReloadHolder = new ServletHolder(liveReloadServlet);
+            liveReloadHolder.setAsyncSupported(true);
+            webapp.addServlet(liveReloadHolder, LiveReloadServlet.PATH);
+            webapp.setAttribute(
+                    DoxiaFilter.LIVE_RELOAD_SNIPPET_KEY, LiveReloadServlet.getSnippet(LiveReloadServlet.PATH));
+        }
         webapp.getInitParams().put("org.mortbay.jetty.servlet.Default.useFileMappedBuffer", "false");
 
         // For external reports
@@ -140,7 +232,7 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
         webapp.setAttribute(DoxiaFilter.LOCALES_LIST_KEY, localesList);
 
         try {
-            Map<String, DoxiaBean> i18nDoxiaContexts = new HashMap<>();
+            i18nDoxiaContexts = new HashMap<>();
 
             for (Locale locale : localesList) {
                 SiteRenderingContext i18nContext = createSiteRenderingContext(locale);
@@ -152,6 +244,7 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
 
                 Map<String, DocumentRenderer> i18nDocuments = locateDocuments(i18nContext, reports, locale);
                 DoxiaBean doxiaBean = new DoxiaBean(i18nContext, i18nDocuments);
+                doxiaBean.setNotThreadSafeDocuments(getNotThreadSafeDocuments(i18nDocuments));
 
                 if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
                     i18nDoxiaContexts.put(locale.toString(), doxiaBean);
@@ -173,6 +266,70 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
         return webapp;
     }
 
+    /**
+     * @return the paths of the reports that must not be generated concurrently with other reports
+     */
+    private Set<String> getNotThreadSafeDocuments(Map<String, DocumentRenderer> documents) {
+        Set<String> notThreadSafeDocuments = new HashSet<>();
+        for (Map.Entry<String, DocumentRenderer> document : documents.entrySet()) {
+            if (document.getValue() instanceof ReportDocumentRenderer
+                    && !isThreadSafe(((ReportDocumentRenderer) document.getValue()).getMavenReportExecution())) {
+                notThreadSafeDocuments.add(document.getKey());
+            }
+        }
+        return notThreadSafeDocuments;
+    }
+
+    /**
+     * Watch the Doxia sources, to reload the pages open in the browsers when their source is modified: reloading a
+     * page renders it again, as the modified source invalidates the cached page.
+     *
+     * @return the started watcher, to close when Jetty stops
+     */
+    private DirectoryWatcher watchSources() throws IOException {
+        List<File> directories = new ArrayList<>();
+        for (File directory : Arrays.asList(siteDirectory, generatedSiteDirectory)) {
+            if (directory != null && directory.isDirectory()) {
+                directories.add(directory);
+            }
+        }
+        DirectoryWatcher.Listener listener = (changed, deleted) -> {
+            Set<String> pages = new LinkedHashSet<>();
+            for (File file : changed) {
+                pages.addAll(getPages(file));
+            }
+            if (!pages.isEmpty()) {
+                getLog().info("Change detected in " + changed + ", reloading " + pages);
+                liveReloadServlet.notify(pages);
+            }
+        };
+        DirectoryWatcher watcher =
+                new DirectoryWatcher(directories, LIVE_RELOAD_QUIET_PERIOD, LIVE_RELOAD_INTERVAL, listener, getLog());
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * @return the paths of the pages rendered from a Doxia source, relative to the site root
+     */
+    private List<String> getPages(File source) {
+        List<String> pages = new ArrayList<>();
+        for (Map.Entry<String, DoxiaBean> i18nDoxiaContext : i18nDoxiaContexts.entrySet()) {
+            String prefix = "default".equals(i18nDoxiaContext.getKey()) ? "" : i18nDoxiaContext.getKey() + '/';
+            Map<String, DocumentRenderer> documents = i18nDoxiaContext.getValue().getDocuments();
+            for (Map.Entry<String, DocumentRenderer> document : documents.entrySet()) {
+                if (document.getValue() instanceof DoxiaDocumentRenderer) {
+                    DocumentRenderingContext context = document.getValue().getRenderingContext();
+                    File file = new File(context.getBasedir(), context.getInputPath());
+                    if (file.getAbsoluteFile().equals(source.getAbsoluteFile())) {
+                        pages.add(prefix + document.getKey());
+                    }
+                }
+            }
+        }
+        return pages;
+    }
+
     private File getOutputDirectory(Locale locale) {
         File file;
         if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.wagon.CommandExecutionException;
+import org.apache.maven.wagon.CommandExecutor;
+import org.apache.maven.wagon.Wagon;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@DisabledOnOs(OS.WINDOWS)
+public class ArchiveTransportTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testDirectoryIsSwappedWithTheExtractedArchive() throws Exception {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), "new index");
+        write(new File(site, "css/site.css"), "css");
+        write(new File(site, "it's.html"), "quoted");
+        write(new File(site, "unchanged.html"), "not uploaded");
+        File remote = new File(basedir, "remote");
+        write(new File(remote, "module/index.html"), "old index");
+        write(new File(remote, "module/other.html"), "other");
+        write(new File(remote, "module/stale.html"), "stale");
+        write(new File(remote, "module/css/stale.css"), "stale");
+        write(new File(remote, "module/css/other.css"), "other");
+        write(new File(remote, "module/submodule/index.html"), "submodule");
+
+        Wagon wagon = mock(Wagon.class, withSettings().extraInterfaces(CommandExecutor.class));
+        doAnswer(invocation -> {
+                    File destination = new File(remote, invocation.getArgument(1));
+                    destination.getParentFile().mkdirs();
+                    Files.copy(((File) invocation.getArgument(0)).toPath(), destination.toPath());
+                    return null;
+                })
+                .when(wagon)
+                .put(any(File.class), anyString());
+        doAnswer(invocation -> {
+                    execute(invocation.getArgument(0));
+                    return null;
+                })
+                .when((CommandExecutor) wagon)
+                .executeCommand(anyString());
+
+        new ArchiveTransport(wagon, remote.getPath(), new SystemStreamLog())
+                .put(
+                        new TarArchiver(),
+                        "module",
+                        Collections.singletonMap(site, Arrays.asList("index.html", "css/site.css", "it's.html")),
+                        Arrays.asList("stale.html", "css/stale.css"));
+
+        assertEquals("new index", read(new File(remote, "module/index.html")));
+        assertEquals("css", read(new File(remote, "module/css/site.css")));
+        assertEquals("quoted", read(new File(remote, "module/it's.html")));
+        assertEquals("other", read(new File(remote, "module/other.html")));
+        assertEquals("other", read(new File(remote, "module/css/other.css")));
+        assertEquals("submodule", read(new File(remote, "module/submodule/index.html")));
+        assertFalse(new File(remote, "module/unchanged.html").exists());
+        assertFalse(new File(remote, "module/stale.html").exists());
+        assertFalse(new File(remote, "module/css/stale.css").exists());
+        // no leftover of the archive or of the swap
+        assertEquals(5, new File(remote, "module").list().length);
+        assertArrayEquals(new String[] {"module"}, remote.list());
+    }
+
+    private static void execute(String command) throws IOException, InterruptedException, CommandExecutionException {
+        Process process = new ProcessBuilder("sh", "-c", command).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new CommandExecutionException("Failed: " + command);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
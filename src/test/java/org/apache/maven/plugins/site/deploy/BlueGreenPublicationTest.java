@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.wagon.CommandExecutionException;
+import org.apache.maven.wagon.CommandExecutor;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@DisabledOnOs(OS.WINDOWS)
+public class BlueGreenPublicationTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testLocalPublication() throws Exception {
+        Wagon wagon = mock(Wagon.class);
+        File live = new File(basedir, "site");
+        write(new File(live, "index.html"), "initial");
+        Repository repository = new Repository("site", live.toURI().toString());
+
+        for (int i = 1; i <= 4; i++) {
+            BlueGreenPublication publication = new BlueGreenPublication(
+                    repository, Instant.ofEpochSecond(i), 2, new SystemStreamLog());
+            publication.copyLiveSite(wagon);
+            File version = new File(publication.getVersionRepository().getBasedir());
+            assertEquals("site.versions", version.getParentFile().getName());
+            write(new File(version, "page-" + i + ".html"), "page");
+            write(new File(version, "index.html"), "version " + i);
+            publication.publish(wagon);
+
+            assertTrue(Files.isSymbolicLink(live.toPath()));
+            assertEquals("version " + i, read(new File(live, "index.html")));
+        }
+        // the live site was copied to every version
+        assertTrue(new File(live, "page-1.html").isFile());
+        assertArrayEquals(
+                new String[] {"19700101-000003-000", "19700101-000004-000"},
+                sortedList(new File(basedir, "site.versions")));
+    }
+
+    @Test
+    public void testRemotePublication() throws Exception {
+        Wagon wagon = mock(Wagon.class, withSettings().extraInterfaces(CommandExecutor.class));
+        doAnswer(invocation -> {
+                    execute(invocation.getArgument(0));
+                    return null;
+                })
+                .when((CommandExecutor) wagon)
+                .executeCommand(anyString());
+        File live = new File(basedir, "it's site");
+        write(new File(live, "index.html"), "initial");
+        Repository repository = new Repository("site", "scp://localhost" + live.getPath() + "/");
+
+        for (int i = 1; i <= 3; i++) {
+            BlueGreenPublication publication = new BlueGreenPublication(
+                    repository, Instant.ofEpochSecond(i), 3, new SystemStreamLog());
+            publication.copyLiveSite(wagon);
+            write(new File(publication.getVersionRepository().getBasedir(), "index.html"), "version " + i);
+            publication.publish(wagon);
+
+            assertTrue(Files.isSymbolicLink(live.toPath()));
+            assertEquals("version " + i, read(new File(live, "index.html")));
+        }
+        // the initial directory was pruned with the first version
+        assertArrayEquals(
+                new String[] {"19700101-000001-000", "19700101-000002-000", "19700101-000003-000"},
+                sortedList(new File(basedir, "it's site.versions")));
+    }
+
+    @Test
+    public void testLiveVersionIsNeverPruned() throws Exception {
+        Wagon wagon = mock(Wagon.class, withSettings().extraInterfaces(CommandExecutor.class));
+        doAnswer(invocation -> {
+                    execute(invocation.getArgument(0));
+                    return null;
+                })
+                .when((CommandExecutor) wagon)
+                .executeCommand(anyString());
+        Wagon localWagon = mock(Wagon.class);
+        File remote = new File(basedir, "remote");
+        File local = new File(basedir, "local");
+
+        // a clock set back publishes a version sorted before the previous ones
+        for (int i : new int[] {3, 4, 1}) {
+            publish(wagon, new Repository("site", "scp://localhost" + remote.getPath()), i);
+            publish(localWagon, new Repository("site", local.toURI().toString()), i);
+        }
+
+        String[] expected = {"19700101-000001-000", "19700101-000004-000"};
+        assertArrayEquals(expected, sortedList(new File(basedir, "remote.versions")));
+        assertEquals("version 1", read(new File(remote, "index.html")));
+        assertArrayEquals(expected, sortedList(new File(basedir, "local.versions")));
+        assertEquals("version 1", read(new File(local, "index.html")));
+    }
+
+    private static void publish(Wagon wagon, Repository repository, int time) throws Exception {
+        BlueGreenPublication publication =
+                new BlueGreenPublication(repository, Instant.ofEpochSecond(time), 2, new SystemStreamLog());
+        write(new File(publication.getVersionRepository().getBasedir(), "index.html"), "version " + time);
+        publication.publish(wagon);
+    }
+
+    @Test
+    public void testRootDirectoryIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BlueGreenPublication(
+                        new Repository("site", "file:///"), Instant.now(), 3, new SystemStreamLog()));
+    }
+
+    private static String[] sortedList(File directory) {
+        String[] names = directory.list();
+        Arrays.sort(names);
+        return names;
+    }
+
+    private static void execute(String command) throws IOException, InterruptedException, CommandExecutionException {
+        Process process = new ProcessBuilder("sh", "-c", command).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new CommandExecutionException("Failed: " + command);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalStagingTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testFilesAreLinked() throws IOException {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), "index");
+        write(new File(site, "css/site.css"), "css");
+        File staging = new File(basedir, "staging/module");
+        write(new File(staging, "index.html"), "old index");
+
+        LocalStaging localStaging = new LocalStaging(new SystemStreamLog());
+        localStaging.stage(site, Arrays.asList("index.html", "css/site.css"), staging);
+
+        assertEquals(2, localStaging.getLinked() + localStaging.getCopied());
+        assertEquals("index", read(new File(staging, "index.html")));
+        assertEquals("css", read(new File(staging, "css/site.css")));
+        if (localStaging.getLinked() == 2) {
+            assertTrue(Files.isSameFile(
+                    new File(site, "index.html").toPath(), new File(staging, "index.html").toPath()));
+        }
+
+        // staging again is a no-op
+        localStaging.stage(site, Arrays.asList("index.html", "css/site.css"), staging);
+        assertEquals("index", read(new File(staging, "index.html")));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SiteCompressionTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testOnlySelectedFilesAreCompressed() throws IOException {
+        File site = new File(basedir, "site");
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            html.append("<p>Welcome to Apache Maven</p>\n");
+        }
+        write(new File(site, "index.html"), html.toString().getBytes(StandardCharsets.UTF_8));
+        write(new File(site, "images/logo.png"), html.toString().getBytes(StandardCharsets.UTF_8));
+        List<String> paths = Arrays.asList("index.html", "images/logo.png");
+
+        File workDirectory = new File(basedir, "work");
+        SiteCompression compression = new SiteCompression(
+                workDirectory, new SiteFiles(Collections.singletonList("**/*.html"), Collections.emptyList()));
+        assertEquals(Collections.singletonList("index.html.gz"), compression.compress(site, paths));
+        assertEquals(html.toString(), gunzip(new File(workDirectory, "index.html.gz")));
+        assertEquals(html.length(), compression.getOriginalBytes());
+        assertTrue(compression.getCompressedBytes() < html.length() / 10);
+        assertFalse(new File(workDirectory, "images/logo.png.gz").exists());
+    }
+
+    @Test
+    public void testSmallTextFilesAreCompressedToo() throws IOException {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), "<p>index</p>".getBytes(StandardCharsets.UTF_8));
+        write(new File(site, "images/logo.png"), new byte[2048]);
+
+        File workDirectory = new File(basedir, "work");
+        SiteCompression compression = new SiteCompression(
+                workDirectory, new SiteFiles(Collections.singletonList("**/*.html"), Collections.emptyList()));
+        assertEquals(
+                Collections.singletonList("index.html.gz"),
+                compression.compress(site, Arrays.asList("index.html", "images/logo.png")));
+        assertEquals("<p>index</p>", gunzip(new File(workDirectory, "index.html.gz")));
+    }
+
+    private static String gunzip(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+    }
+}
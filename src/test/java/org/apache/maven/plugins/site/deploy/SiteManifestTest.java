@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SiteManifestTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testChangesAndStaleFiles() throws IOException {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), "index");
+        write(new File(site, "css/site.css"), "css");
+        write(new File(site, "old.html"), "old");
+        write(new File(site, SiteManifest.NAME), "ignored");
+        SiteManifest previous = SiteManifest.scan(site, SiteFiles.ALL);
+        assertEquals(3, previous.size());
+
+        File manifestFile = new File(basedir, "manifest");
+        previous.write(manifestFile);
+        previous = SiteManifest.read(manifestFile);
+
+        write(new File(site, "index.html"), "new index");
+        write(new File(site, "new.html"), "new");
+        new File(site, "old.html").delete();
+        SiteManifest manifest = SiteManifest.scan(site, SiteFiles.ALL);
+
+        assertEquals(Arrays.asList("index.html", "new.html"), manifest.getChanges(previous));
+        assertEquals(Collections.singletonList("old.html"), manifest.getStaleFiles(previous, SiteFiles.ALL));
+        assertEquals(Collections.emptyList(), manifest.getChanges(manifest));
+
+        manifest.retain(previous, manifest.getStaleFiles(previous, SiteFiles.ALL));
+        assertEquals(4, manifest.size());
+        assertEquals(Collections.emptyList(), manifest.getStaleFiles(previous, SiteFiles.ALL));
+    }
+
+    @Test
+    public void testExcludedFilesAreNotStale() throws IOException {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), "index");
+        write(new File(site, "fr/index.html"), "index fr");
+        write(new File(site, "apidocs/index.html"), "apidocs");
+        SiteManifest previous = SiteManifest.scan(site, SiteFiles.ALL);
+
+        SiteFiles files = new SiteFiles(Collections.emptyList(), Collections.singletonList("apidocs/"))
+                .exclude(Collections.singletonList("fr/"));
+        assertEquals(Collections.singletonList("index.html"), files.list(site));
+        SiteManifest manifest = SiteManifest.scan(site, files);
+        assertEquals(1, manifest.size());
+        assertEquals(Collections.emptyList(), manifest.getStaleFiles(previous, files));
+
+        manifest.retainExcluded(previous, files);
+        assertEquals(3, manifest.size());
+    }
+
+    @Test
+    public void testResolve() {
+        assertEquals("index.html", SiteManifest.resolve("./", "index.html"));
+        assertEquals("fr/index.html", SiteManifest.resolve("fr/./", "index.html"));
+        assertEquals("../module/index.html", SiteManifest.resolve("../module", "index.html"));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class TransferProgressListenerTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @TempDir
+    File basedir;
+
+    private final Wagon wagon = mock(Wagon.class);
+
+    @Test
+    public void testProgressIsLoggedOncePerInterval() throws IOException {
+        File site = new File(basedir, "site");
+        write(new File(site, "index.html"), 1000);
+        write(new File(site, "fr/index.html"), 3000);
+
+        AtomicLong clock = new AtomicLong();
+        Log log = mock(Log.class);
+        TransferProgressListener listener = new TransferProgressListener(log, 10 * SECOND, clock::get);
+        listener.expect(site, Arrays.asList("index.html", "fr/index.html"));
+
+        Resource index = new Resource("index.html");
+        listener.transferStarted(event(index, TransferEvent.TRANSFER_STARTED));
+        clock.set(5 * SECOND);
+        listener.transferProgress(event(index, TransferEvent.TRANSFER_PROGRESS), new byte[1000], 1000);
+        listener.transferCompleted(event(index, TransferEvent.TRANSFER_COMPLETED));
+        verify(log, never()).info(anyString());
+
+        Resource fr = new Resource("fr/index.html");
+        listener.transferStarted(event(fr, TransferEvent.TRANSFER_STARTED));
+        clock.set(10 * SECOND);
+        listener.transferProgress(event(fr, TransferEvent.TRANSFER_PROGRESS), new byte[1000], 1000);
+        verify(log).info("Uploaded 1/2 files, 2.0 kB/3.9 kB, 200 B/s, ETA 10 s");
+
+        clock.set(15 * SECOND);
+        listener.transferProgress(event(fr, TransferEvent.TRANSFER_PROGRESS), new byte[2000], 2000);
+        listener.transferCompleted(event(fr, TransferEvent.TRANSFER_COMPLETED));
+        assertEquals(2, listener.getFiles());
+        assertEquals(4000, listener.getBytes());
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        TransferProgressListener listener = new TransferProgressListener(mock(Log.class), 0, clock::get);
+
+        Resource failed = new Resource("fr/index.html");
+        listener.transferStarted(event(failed, TransferEvent.TRANSFER_STARTED));
+        listener.transferProgress(event(failed, TransferEvent.TRANSFER_PROGRESS), new byte[10], 10);
+        listener.transferError(event(failed, TransferEvent.TRANSFER_ERROR));
+        listener.retried("fr/index.html");
+        upload(listener, clock, "fr/index.html", 100, 3 * SECOND);
+        upload(listener, clock, "fr/images/logo.png", 5000, SECOND);
+        upload(listener, clock, "index.html", 200, 2 * SECOND);
+
+        // downloads, like the one of the site manifest, are ignored
+        Resource manifest = new Resource(".site-manifest.sha256");
+        listener.transferStarted(event(manifest, TransferEvent.TRANSFER_STARTED, TransferEvent.REQUEST_GET));
+        listener.transferCompleted(event(manifest, TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET));
+
+        File file = new File(basedir, "target/site-deploy-report.json");
+        listener.write(file);
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"files\": 3,"));
+        assertTrue(json.contains("\"bytes\": 5310,"));
+        assertTrue(json.contains("\"wallNanos\": 6000000000,"));
+        assertTrue(json.contains("\"averageFileNanos\": 2000000000,"));
+        assertTrue(json.contains("\"retries\": 1,"));
+        assertTrue(json.contains("\"fr\": 100,\n    \"fr/images\": 5000"));
+        assertTrue(json.contains("\".\": 200"));
+        assertTrue(json.indexOf("\"name\": \"fr/index.html\", \"bytes\": 100")
+                < json.indexOf("\"name\": \"index.html\", \"bytes\": 200"));
+        assertTrue(json.contains("{\"name\": \"fr/index.html\", \"retries\": 1}"));
+    }
+
+    @Test
+    public void testFormatBytes() {
+        assertEquals("512 B", TransferProgressListener.formatBytes(512));
+        assertEquals("1.5 kB", TransferProgressListener.formatBytes(1536));
+        assertEquals("2.0 MB", TransferProgressListener.formatBytes(2 * 1024 * 1024));
+    }
+
+    private void upload(TransferProgressListener listener, AtomicLong clock, String name, int length, long nanos) {
+        Resource resource = new Resource(name);
+        listener.transferStarted(event(resource, TransferEvent.TRANSFER_STARTED));
+        listener.transferProgress(event(resource, TransferEvent.TRANSFER_PROGRESS), new byte[length], length);
+        clock.addAndGet(nanos);
+        listener.transferCompleted(event(resource, TransferEvent.TRANSFER_COMPLETED));
+    }
+
+    private TransferEvent event(Resource resource, int eventType) {
+        return event(resource, eventType, TransferEvent.REQUEST_PUT);
+    }
+
+    private TransferEvent event(Resource resource, int eventType, int requestType) {
+        return new TransferEvent(wagon, resource, eventType, requestType);
+    }
+
+    private static void write(File file, int length) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[length]);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.Wagon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class WagonPoolTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testEveryFileIsUploadedOnce() throws Exception {
+        List<String> uploads = Collections.synchronizedList(new ArrayList<>());
+        Set<Wagon> used = ConcurrentHashMap.newKeySet();
+        List<Wagon> wagons = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Wagon wagon = mock(Wagon.class);
+            doAnswer(invocation -> {
+                        uploads.add(invocation.getArgument(1));
+                        used.add(wagon);
+                        // leave time to the other connections
+                        Thread.sleep(5);
+                        return null;
+                    })
+                    .when(wagon)
+                    .put(any(File.class), anyString());
+            wagons.add(wagon);
+        }
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            paths.add("page-" + i + ".html");
+        }
+        new WagonPool(wagons, 0, null, new SystemStreamLog()).put(new File("site"), "module", paths);
+
+        Collections.sort(uploads);
+        List<String> expected = new ArrayList<>();
+        for (String path : paths) {
+            expected.add("module/" + path);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, uploads);
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    public void testFailureIsRethrown() throws Exception {
+        Wagon failing = mock(Wagon.class);
+        doThrow(new TransferFailedException("failed")).when(failing).put(any(File.class), eq("b.html"));
+        Wagon other = mock(Wagon.class);
+        doThrow(new TransferFailedException("failed")).when(other).put(any(File.class), eq("b.html"));
+
+        TransferFailedException e = assertThrows(
+                TransferFailedException.class,
+                () -> new WagonPool(Arrays.asList(failing, other), 0, null, new SystemStreamLog())
+                        .put(new File("site"), "./", Arrays.asList("a.html", "b.html", "c.html")));
+        assertEquals("failed", e.getMessage());
+    }
+
+    @Test
+    public void testFailedTransferIsRetried() throws Exception {
+        Wagon wagon = mock(Wagon.class);
+        doThrow(new TransferFailedException("failed"))
+                .doNothing()
+                .when(wagon)
+                .put(any(File.class), eq("a.html"));
+
+        TransferProgressListener progressListener = new TransferProgressListener(new SystemStreamLog(), 0);
+        WagonPool pool = new WagonPool(Collections.singletonList(wagon), 1, null, new SystemStreamLog());
+        pool.setRetryDelay(1);
+        pool.setProgressListener(progressListener);
+        pool.put(new File("site"), "./", Collections.singletonList("a.html"));
+
+        verify(wagon, times(2)).put(any(File.class), eq("a.html"));
+        assertEquals(1, progressListener.getRetries());
+    }
+
+    @Test
+    public void testJournalResumesDeployment() throws Exception {
+        File site = new File(basedir, "site");
+        write(new File(site, "a.html"), "a");
+        write(new File(site, "b.html"), "b");
+        File journalDirectory = new File(basedir, "journal");
+
+        Wagon wagon = mock(Wagon.class);
+        doThrow(new TransferFailedException("failed")).when(wagon).put(any(File.class), eq("b.html"));
+        DeployJournal journal = DeployJournal.open(journalDirectory, "scp://example.org/site");
+        assertThrows(
+                TransferFailedException.class,
+                () -> new WagonPool(Collections.singletonList(wagon), 0, journal, new SystemStreamLog())
+                        .put(site, "./", Arrays.asList("a.html", "b.html")));
+        journal.close();
+
+        // the next deployment only uploads the file that failed, and the ones that changed
+        Wagon retry = mock(Wagon.class);
+        write(new File(site, "b.html"), "new b");
+        DeployJournal resumed = DeployJournal.open(journalDirectory, "scp://example.org/site");
+        assertEquals(1, resumed.size());
+        new WagonPool(Collections.singletonList(retry), 0, resumed, new SystemStreamLog())
+                .put(site, "./", Arrays.asList("a.html", "b.html"));
+        verify(retry, never()).put(any(File.class), eq("a.html"));
+        verify(retry).put(any(File.class), eq("b.html"));
+
+        resumed.delete();
+        assertEquals(0, DeployJournal.open(journalDirectory, "scp://example.org/site").size());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
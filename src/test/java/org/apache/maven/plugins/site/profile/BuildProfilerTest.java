@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.profile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BuildProfilerTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testFailedStepIsRecorded() {
+        BuildProfiler profiler = new BuildProfiler();
+        profiler.record("document", "index.html", () -> {});
+        assertThrows(IOException.class, () -> profiler.record("resources", "default", () -> {
+            throw new IOException("failure");
+        }));
+
+        List<BuildProfiler.Entry> entries = profiler.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("document", entries.get(0).getCategory());
+        assertEquals("index.html", entries.get(0).getName());
+        assertEquals(Thread.currentThread().getName(), entries.get(0).getThread());
+        assertTrue(entries.get(0).getWallNanos() >= 0);
+        assertEquals("resources", entries.get(1).getCategory());
+    }
+
+    @Test
+    public void testWriteAndSummary() throws IOException {
+        BuildProfiler profiler = new BuildProfiler();
+        profiler.record("report", "cpd.html", () -> {});
+        profiler.record("report", "dir\\\"quoted\".html", () -> {});
+        profiler.record("transfer", "index.html", () -> {});
+
+        File file = new File(basedir, "target/site-build-profile.json");
+        profiler.write(file, "site");
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"goal\": \"site\""));
+        assertTrue(json.contains("\"report\": {\"count\": 2,"));
+        assertTrue(json.contains("\"transfer\": {\"count\": 1,"));
+        assertTrue(json.contains("\"name\": \"dir\\\\\\\"quoted\\\".html\""));
+
+        Log log = mock(Log.class);
+        profiler.logSummary(log, 2);
+        verify(log).info("Slowest steps:");
+        verify(log, times(2)).info(startsWith("  "));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectoryWatcherTest {
+    @TempDir
+    File basedir;
+
+    private final BlockingQueue<Batch> batches = new LinkedBlockingQueue<>();
+
+    /**
+     * Changes notified at once.
+     */
+    private static final class Batch {
+        private final Set<File> changed;
+
+        private final Set<File> deleted;
+
+        Batch(Set<File> changed, Set<File> deleted) {
+            this.changed = changed;
+            this.deleted = deleted;
+        }
+    }
+
+    @Test
+    public void testChangesAreNotified() throws Exception {
+        assertChangesAreNotified(true);
+    }
+
+    @Test
+    public void testChangesAreNotifiedByPolling() throws Exception {
+        assertChangesAreNotified(false);
+    }
+
+    private void assertChangesAreNotified(boolean nativeEvents) throws Exception {
+        File index = write(new File(basedir, "markdown/index.md"), "# Index");
+        File faq = write(new File(basedir, "fml/faq.fml"), "<faqs/>");
+
+        try (DirectoryWatcher watcher = newWatcher(nativeEvents)) {
+            watcher.start();
+
+            write(index, "# Welcome to the index");
+            Batch batch = nextBatch();
+            assertEquals(Collections.singleton(index), batch.changed);
+            assertEquals(Collections.emptySet(), batch.deleted);
+
+            Files.delete(faq.toPath());
+            batch = nextBatch();
+            assertEquals(Collections.emptySet(), batch.changed);
+            assertEquals(Collections.singleton(faq), batch.deleted);
+
+            // files of a new directory
+            File usage = write(new File(basedir, "markdown/guides/usage.md"), "# Usage");
+            assertEquals(Collections.singleton(usage), nextBatch().changed);
+        }
+    }
+
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        try (DirectoryWatcher watcher = newWatcher(true)) {
+            watcher.start();
+
+            Set<File> files = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                files.add(write(new File(basedir, "markdown/page" + i + ".md"), "# Page " + i));
+            }
+
+            // a slow machine may split the burst, but not notify every file on its own
+            Set<File> changed = new HashSet<>();
+            int count = 0;
+            while (!changed.containsAll(files)) {
+                Batch batch = nextBatch();
+                assertEquals(Collections.emptySet(), batch.deleted);
+                changed.addAll(batch.changed);
+                count++;
+            }
+            assertEquals(files, changed);
+            assertTrue(count < files.size(), "burst notified in " + count + " batches");
+        }
+    }
+
+    private DirectoryWatcher newWatcher(boolean nativeEvents) {
+        return new DirectoryWatcher(
+                Collections.singletonList(basedir),
+                200,
+                100,
+                (changed, deleted) -> batches.add(new Batch(changed, deleted)),
+                new SystemStreamLog(),
+                nativeEvents);
+    }
+
+    private Batch nextBatch() throws InterruptedException {
+        Batch batch = batches.poll(10, TimeUnit.SECONDS);
+        assertNotNull(batch, "no change notified");
+        return batch;
+    }
+
+    private static File write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
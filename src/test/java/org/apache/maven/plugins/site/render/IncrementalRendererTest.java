@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class IncrementalRendererTest {
+    @TempDir
+    File basedir;
+
+    private File siteDirectory;
+
+    private File outputDirectory;
+
+    private File manifest;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        siteDirectory = new File(basedir, "src/site/markdown");
+        outputDirectory = new File(basedir, "target/site");
+        manifest = new File(basedir, "target/site-render-manifest/default.properties");
+        siteDirectory.mkdirs();
+        outputDirectory.mkdirs();
+        write(new File(siteDirectory, "index.md"), "# Index");
+        write(new File(siteDirectory, "other.md"), "# Other");
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<DocumentRenderer> documents(String... names) {
+        List<DocumentRenderer> documents = new ArrayList<>();
+        for (String name : names) {
+            documents.add(new DoxiaDocumentRenderer(new DocumentRenderingContext(
+                    siteDirectory, "src/site/markdown", name, "markdown", "md", true, null)));
+        }
+        return documents;
+    }
+
+    /**
+     * Select the documents to render, then simulate their rendering and store the manifest.
+     */
+    private List<DocumentRenderer> build(String globalHash, String... names) throws IOException {
+        IncrementalRenderer renderer = new IncrementalRenderer(manifest, globalHash, new SystemStreamLog());
+        List<DocumentRenderer> selected = renderer.select(documents(names), outputDirectory);
+        for (DocumentRenderer doc : selected) {
+            write(new File(outputDirectory, doc.getOutputName()), "rendered");
+        }
+        renderer.store();
+        return selected;
+    }
+
+    @Test
+    public void testUnchangedDocumentsAreSkipped() throws IOException {
+        assertEquals(2, build("g1", "index.md", "other.md").size());
+        assertEquals(0, build("g1", "index.md", "other.md").size());
+
+        write(new File(siteDirectory, "other.md"), "# Other, changed");
+        List<DocumentRenderer> selected = build("g1", "index.md", "other.md");
+        assertEquals(1, selected.size());
+        assertEquals("other.html", selected.get(0).getOutputName());
+    }
+
+    @Test
+    public void testGlobalChangeRendersAllDocuments() throws IOException {
+        build("g1", "index.md", "other.md");
+
+        assertEquals(2, build("g2", "index.md", "other.md").size());
+    }
+
+    @Test
+    public void testMissingOutputIsRendered() throws IOException {
+        build("g1", "index.md", "other.md");
+        Files.delete(new File(outputDirectory, "index.html").toPath());
+
+        List<DocumentRenderer> selected = build("g1", "index.md", "other.md");
+        assertEquals(1, selected.size());
+        assertEquals("index.html", selected.get(0).getOutputName());
+    }
+
+    @Test
+    public void testOutputOfRemovedSourceIsDeleted() throws IOException {
+        build("g1", "index.md", "other.md");
+
+        assertEquals(0, build("g1", "index.md").size());
+        assertFalse(new File(outputDirectory, "other.html").exists());
+    }
+
+    @Test
+    public void testDocumentsIncludingFilesAreAlwaysRendered() throws IOException {
+        write(new File(siteDirectory, "other.md"), "# Other\n\n<!-- MACRO{snippet|id=example|file=pom.xml} -->");
+        build("g1", "index.md", "other.md");
+
+        List<DocumentRenderer> selected = build("g1", "index.md", "other.md");
+        assertEquals(1, selected.size());
+        assertEquals("other.html", selected.get(0).getOutputName());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class ParallelDocumentRendererTest {
+
+    private static final String[] PARSER_IDS = {"markdown", "apt", "xdoc", "fml", "xhtml5"};
+
+    private static List<DocumentRenderer> documents(int count) {
+        List<DocumentRenderer> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String parserId = PARSER_IDS[i % PARSER_IDS.length];
+            documents.add(new DoxiaDocumentRenderer(new DocumentRenderingContext(
+                    new File("src/site/" + parserId).getAbsoluteFile(),
+                    "src/site/" + parserId,
+                    "page" + i + ".md",
+                    parserId,
+                    "md",
+                    true,
+                    null)));
+        }
+        return documents;
+    }
+
+    @Test
+    public void testRendersEveryDocumentOnce() throws Exception {
+        Set<String> rendered = ConcurrentHashMap.newKeySet();
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        doAnswer(invocation -> {
+                    Collection<DocumentRenderer> docs = invocation.getArgument(0);
+                    for (DocumentRenderer doc : docs) {
+                        assertTrue(rendered.add(doc.getOutputName()), "rendered twice: " + doc.getOutputName());
+                    }
+                    return null;
+                })
+                .when(siteRenderer)
+                .render(any(), any(), any());
+
+        new ParallelDocumentRenderer(siteRenderer, 4)
+                .render(documents(100), new SiteRenderingContext(), new File("target/site"));
+
+        assertEquals(100, rendered.size());
+    }
+
+    @Test
+    public void testDocumentsSharingParserAreRenderedOneAfterTheOther() throws Exception {
+        Map<String, AtomicInteger> rendering = new ConcurrentHashMap<>();
+        AtomicInteger maxRenderingSameParser = new AtomicInteger();
+        AtomicInteger renderingAll = new AtomicInteger();
+        AtomicInteger maxRenderingAll = new AtomicInteger();
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        doAnswer(invocation -> {
+                    Collection<DocumentRenderer> docs = invocation.getArgument(0);
+                    for (DocumentRenderer doc : docs) {
+                        doc.renderDocument(new StringWriter(), siteRenderer, invocation.getArgument(1));
+                    }
+                    return null;
+                })
+                .when(siteRenderer)
+                .render(any(), any(), any());
+        doAnswer(invocation -> {
+                    DocumentRenderingContext context = invocation.getArgument(1);
+                    AtomicInteger sameParser =
+                            rendering.computeIfAbsent(context.getParserId(), k -> new AtomicInteger());
+                    maxRenderingSameParser.accumulateAndGet(sameParser.incrementAndGet(), Math::max);
+                    maxRenderingAll.accumulateAndGet(renderingAll.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    renderingAll.decrementAndGet();
+                    sameParser.decrementAndGet();
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+
+        new ParallelDocumentRenderer(siteRenderer, 4)
+                .render(documents(50), new SiteRenderingContext(), new File("target/site"));
+
+        // documents of a same format never overlap, documents of different formats do
+        assertEquals(1, maxRenderingSameParser.get());
+        assertTrue(maxRenderingAll.get() > 1, "documents of different formats were not rendered concurrently");
+    }
+
+    @Test
+    public void testNoParserLockWithOneThread() throws Exception {
+        List<DocumentRenderer> documents = documents(10);
+        List<DocumentRenderer> rendered = new ArrayList<>();
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        doAnswer(invocation -> {
+                    Collection<DocumentRenderer> docs = invocation.getArgument(0);
+                    rendered.addAll(docs);
+                    return null;
+                })
+                .when(siteRenderer)
+                .render(any(), any(), any());
+
+        new ParallelDocumentRenderer(siteRenderer, 1)
+                .render(documents, new SiteRenderingContext(), new File("target/site"));
+
+        assertEquals(documents.size(), rendered.size());
+        for (int i = 0; i < documents.size(); i++) {
+            assertSame(documents.get(i), rendered.get(i));
+        }
+    }
+
+    @Test
+    public void testFailureNamesSourceFile() throws Exception {
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        doAnswer(invocation -> {
+                    Collection<DocumentRenderer> docs = invocation.getArgument(0);
+                    if ("page7.html".equals(docs.iterator().next().getOutputName())) {
+                        throw new RendererException("broken");
+                    }
+                    return null;
+                })
+                .when(siteRenderer)
+                .render(any(), any(), any());
+
+        RendererException e = assertThrows(
+                RendererException.class,
+                () -> new ParallelDocumentRenderer(siteRenderer, 4)
+                        .render(documents(20), new SiteRenderingContext(), new File("target/site")));
+
+        assertTrue(e.getMessage().contains("page7.md"), e.getMessage());
+    }
+
+    @Test
+    public void testSequentialFailureNamesSourceFile() throws Exception {
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        doAnswer(invocation -> {
+                    Collection<DocumentRenderer> docs = invocation.getArgument(0);
+                    if ("page3.html".equals(docs.iterator().next().getOutputName())) {
+                        throw new RendererException("broken");
+                    }
+                    return null;
+                })
+                .when(siteRenderer)
+                .render(any(), any(), any());
+
+        RendererException e = assertThrows(
+                RendererException.class,
+                () -> new ParallelDocumentRenderer(siteRenderer, 1)
+                        .render(documents(5), new SiteRenderingContext(), new File("target/site")));
+
+        assertTrue(e.getMessage().contains("page3.md"), e.getMessage());
+    }
+}
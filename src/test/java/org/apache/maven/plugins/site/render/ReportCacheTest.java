@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.apache.maven.doxia.siterenderer.DocumentContent;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.reporting.MavenReport;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReportCacheTest {
+    private static final ReportCache.Key KEY = new ReportCache.Key("slot", "key");
+
+    @TempDir
+    File basedir;
+
+    private File sourceFile;
+
+    private MavenProject project;
+
+    private ReportCache reportCache;
+
+    private MavenReportExecution exec;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId("example");
+        model.setVersion("1.0");
+        model.setBuild(new Build());
+        project = new MavenProject(model);
+        project.getBuild().setOutputDirectory(new File(basedir, "target/classes").getPath());
+        project.getBuild().setTestOutputDirectory(new File(basedir, "target/test-classes").getPath());
+        File sourceDirectory = new File(basedir, "src/main/java");
+        sourceDirectory.mkdirs();
+        project.addCompileSourceRoot(sourceDirectory.getPath());
+        sourceFile = new File(sourceDirectory, "Example.java");
+        write(sourceFile, "class Example {}");
+
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("org.example");
+        plugin.setArtifactId("example-maven-plugin");
+        plugin.setVersion("1.0");
+        exec = new MavenReportExecution("report", plugin, mock(MavenReport.class), null, true);
+
+        reportCache = new ReportCache(new File(basedir, "target/site-report-cache"), project);
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DocumentContent content(String title, String body, DocumentRenderingContext renderingContext) {
+        DocumentContent content = mock(DocumentContent.class);
+        when(content.getTitle()).thenReturn(title);
+        when(content.getBody()).thenReturn(body);
+        when(content.getAuthors()).thenReturn(Arrays.asList("Author 1", "Author 2"));
+        when(content.getRenderingContext()).thenReturn(renderingContext);
+        return content;
+    }
+
+    @Test
+    public void testKeyDependsOnSourcesAndLocale() throws IOException {
+        ReportCache.Key key = reportCache.getKey(exec, Locale.ENGLISH, "example");
+
+        assertEquals(key, reportCache.getKey(exec, Locale.ENGLISH, "example"));
+        assertNotEquals(key, reportCache.getKey(exec, Locale.FRENCH, "example"));
+
+        // the project fingerprint is computed once per build
+        write(sourceFile, "class Example { int changed; }");
+        ReportCache nextBuild = new ReportCache(new File(basedir, "target/site-report-cache"), project);
+        assertNotEquals(key, nextBuild.getKey(exec, Locale.ENGLISH, "example"));
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        File siteDirectory = new File(basedir, "src/site");
+        ReportCache.EntryWriter entry = reportCache.newEntry(KEY);
+        entry.addPage(
+                "example/sub.html",
+                content("Sub", "<p>sub</p>", new DocumentRenderingContext(siteDirectory, "example/sub", "gen")));
+
+        // not visible until committed
+        assertNull(reportCache.load(KEY));
+        entry.commit(content("Main", "<p>main</p>", null));
+        ReportCache.CachedReport cached = reportCache.load(KEY);
+
+        DocumentRenderingContext mainContext = new DocumentRenderingContext(siteDirectory, "example", "gen");
+        DocumentContent main = cached.getMain(mainContext);
+        assertEquals("Main", main.getTitle());
+        assertEquals("<p>main</p>", main.getBody());
+        assertEquals(Arrays.asList("Author 1", "Author 2"), main.getAuthors());
+        assertNull(main.getHead());
+        assertEquals(mainContext, main.getRenderingContext());
+
+        assertEquals(1, cached.getPageCount());
+        ReportCache.CachedDocumentContent sub = cached.getPage(0, siteDirectory, "gen");
+        assertEquals("example/sub.html", sub.getPath());
+        assertEquals("Sub", sub.getTitle());
+        assertEquals("<p>sub</p>", sub.getBody());
+        assertEquals("example/sub", sub.getRenderingContext().getInputPath());
+        cached.close();
+    }
+
+    @Test
+    public void testNewEntryReplacesPreviousEntryOfReport() throws IOException {
+        File cacheDirectory = new File(basedir, "target/site-report-cache");
+        DocumentRenderingContext context = new DocumentRenderingContext(basedir, "example", "gen");
+        reportCache.newEntry(KEY).commit(content("Old", "<p>old</p>", context));
+
+        ReportCache.Key newKey = new ReportCache.Key("slot", "new key");
+        ReportCache.EntryWriter entry = reportCache.newEntry(newKey);
+        // the previous entry stays visible until replaced
+        try (ReportCache.CachedReport cached = reportCache.load(KEY)) {
+            assertEquals("Old", cached.getMain(context).getTitle());
+        }
+        entry.commit(content("New", "<p>new</p>", context));
+
+        assertNull(reportCache.load(KEY));
+        try (ReportCache.CachedReport cached = reportCache.load(newKey)) {
+            assertEquals("New", cached.getMain(context).getTitle());
+        }
+        assertEquals(1, cacheDirectory.list().length);
+    }
+
+    @Test
+    public void testAbortedEntryIsDiscarded() throws IOException {
+        File cacheDirectory = new File(basedir, "target/site-report-cache");
+        ReportCache.EntryWriter entry = reportCache.newEntry(KEY);
+        entry.addPage("sub.html", content("Sub", "<p>sub</p>", new DocumentRenderingContext(basedir, "sub", "gen")));
+        entry.abort();
+
+        assertNull(reportCache.load(KEY));
+        assertEquals(0, cacheDirectory.list().length);
+    }
+}
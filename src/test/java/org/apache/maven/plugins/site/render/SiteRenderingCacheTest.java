@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Locale;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import org.apache.maven.SessionScoped;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.session.scope.internal.SessionScope;
+import org.eclipse.sisu.inject.BeanLocator;
+import org.eclipse.sisu.space.BeanScanning;
+import org.eclipse.sisu.space.ClassSpace;
+import org.eclipse.sisu.space.SpaceModule;
+import org.eclipse.sisu.space.URLClassSpace;
+import org.eclipse.sisu.wire.WireModule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SiteRenderingCacheTest {
+    @Test
+    public void testCacheIsSharedInSession() {
+        SessionScope sessionScope = new SessionScope();
+        // the plugin classes only, as Maven indexes the components of a plugin
+        ClassSpace space = new URLClassSpace(
+                getClass().getClassLoader(),
+                new URL[] {SiteRenderingCache.class.getProtectionDomain().getCodeSource().getLocation()});
+        Injector injector = Guice.createInjector(new WireModule(
+                binder -> binder.bindScope(SessionScoped.class, sessionScope),
+                new SpaceModule(space, BeanScanning.INDEX)));
+        BeanLocator locator = injector.getInstance(BeanLocator.class);
+
+        SiteRenderingCache first;
+        sessionScope.enter();
+        try {
+            first = lookup(locator);
+            assertSame(first, lookup(locator));
+        } finally {
+            sessionScope.exit();
+        }
+
+        sessionScope.enter();
+        try {
+            assertNotSame(first, lookup(locator));
+        } finally {
+            sessionScope.exit();
+        }
+    }
+
+    private static SiteRenderingCache lookup(BeanLocator locator) {
+        return locator.locate(Key.get(SiteRenderingCache.class))
+                .iterator()
+                .next()
+                .getProvider()
+                .get();
+    }
+
+    @Test
+    public void testTemplateClassLoaderIsShared() throws Exception {
+        Artifact skin = mock(Artifact.class);
+        when(skin.getFile()).thenReturn(new File("skin.jar"));
+
+        SiteRenderer siteRenderer = mock(SiteRenderer.class);
+        when(siteRenderer.createContextForSkin(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    SiteRenderingContext skinContext = new SiteRenderingContext();
+                    skinContext.setTemplateName("META-INF/maven/site.vm");
+                    skinContext.setTemplateClassLoader(new URLClassLoader(new URL[0]));
+                    skinContext.setLocale(invocation.getArgument(4));
+                    return skinContext;
+                });
+
+        SiteRenderingCache cache = new SiteRenderingCache();
+        SiteModel siteModel = new SiteModel();
+        SiteRenderingContext first = cache.createContextForSkin(
+                siteRenderer, skin, Collections.emptyMap(), siteModel, "title", Locale.ENGLISH);
+        SiteRenderingContext context = cache.createContextForSkin(
+                siteRenderer, skin, Collections.emptyMap(), siteModel, "Titel", Locale.GERMAN);
+
+        // every context is checked by the site renderer
+        verify(siteRenderer, times(2)).createContextForSkin(any(), any(), any(), any(), any());
+        assertSame(first.getTemplateClassLoader(), context.getTemplateClassLoader());
+        assertEquals(Locale.GERMAN, context.getLocale());
+    }
+
+    @Test
+    public void testSiteModelIsCopied() {
+        SiteRenderingCache cache = new SiteRenderingCache();
+        assertNull(cache.getSiteModel("key"));
+
+        SiteModel siteModel = new SiteModel();
+        siteModel.setName("site");
+        cache.putSiteModel("key", siteModel);
+        siteModel.setName("modified");
+
+        SiteModel cached = cache.getSiteModel("key");
+        assertEquals("site", cached.getName());
+        assertNotSame(cached, cache.getSiteModel("key"));
+    }
+}
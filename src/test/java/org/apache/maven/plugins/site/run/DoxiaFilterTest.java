@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.site.Body;
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DoxiaFilterTest {
+    private final SiteRenderer siteRenderer = mock(SiteRenderer.class);
+
+    private final Map<String, DocumentRenderer> documents = new HashMap<>();
+
+    private final SiteModel siteModel = new SiteModel();
+
+    private final Set<String> notThreadSafeDocuments = new HashSet<>();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentRequestsForSamePageRenderOnce() throws Exception {
+        AtomicInteger renderings = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch secondRequest = new CountDownLatch(1);
+        doAnswer(invocation -> {
+                    renderings.incrementAndGet();
+                    rendering.countDown();
+                    secondRequest.await(10, TimeUnit.SECONDS);
+                    // let the second request reach the rendering in progress
+                    Thread.sleep(100);
+                    invocation.<Writer>getArgument(0).write("<p>index</p>");
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("index", "markdown");
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DoxiaFilter.PAGE_CACHE_SIZE_KEY, 1024L * 1024L);
+        DoxiaFilter filter = newFilter(attributes);
+
+        Future<String> first = executor.submit(() -> get(filter, "/index.html", null));
+        rendering.await(10, TimeUnit.SECONDS);
+        Future<String> second = executor.submit(() -> get(filter, "/index.html", secondRequest));
+
+        assertEquals("<p>index</p>", first.get(10, TimeUnit.SECONDS));
+        assertEquals("<p>index</p>", second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, renderings.get());
+    }
+
+    @Test
+    public void testPagesWithDifferentParsersRenderConcurrently() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        doAnswer(invocation -> {
+                    // fails if the other page is not rendered at the same time
+                    barrier.await(10, TimeUnit.SECONDS);
+                    DocumentRenderingContext context = invocation.getArgument(1);
+                    invocation.<Writer>getArgument(0).write(context.getOutputName());
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("index", "markdown");
+        addDocument("faq", "fml");
+        DoxiaFilter filter = newFilter();
+
+        Future<String> index = executor.submit(() -> get(filter, "/index.html", null));
+        Future<String> faq = executor.submit(() -> get(filter, "/faq.html", null));
+
+        assertEquals("index.html", index.get(10, TimeUnit.SECONDS));
+        assertEquals("faq.html", faq.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPagesSharingParserRenderOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(100);
+                    running.decrementAndGet();
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("index", "markdown");
+        addDocument("usage", "markdown");
+        DoxiaFilter filter = newFilter();
+
+        Future<String> index = executor.submit(() -> get(filter, "/index.html", null));
+        Future<String> usage = executor.submit(() -> get(filter, "/usage.html", null));
+        index.get(10, TimeUnit.SECONDS);
+        usage.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testNotThreadSafeDocumentsRenderOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(100);
+                    running.decrementAndGet();
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("index", "markdown");
+        addDocument("faq", "fml");
+        notThreadSafeDocuments.add("index.html");
+        notThreadSafeDocuments.add("faq.html");
+        DoxiaFilter filter = newFilter();
+
+        Future<String> index = executor.submit(() -> get(filter, "/index.html", null));
+        Future<String> faq = executor.submit(() -> get(filter, "/faq.html", null));
+        index.get(10, TimeUnit.SECONDS);
+        faq.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testPagesArePrerenderedInMenuOrder() throws Exception {
+        List<String> rendered = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+                    DocumentRenderingContext context = invocation.getArgument(1);
+                    rendered.add(context.getOutputName());
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("about", "markdown");
+        addDocument("faq", "markdown");
+        addDocument("index", "markdown");
+        addDocument("usage", "markdown");
+        siteModel.setBody(new Body());
+        siteModel.getBody().addMenu(menu("./index.html", "usage.html#top", "https://maven.apache.org/"));
+
+        assertEquals(
+                Arrays.asList("index.html", "usage.html", "about.html", "faq.html"),
+                DoxiaFilter.getRenderOrder(siteModel, documents.keySet()));
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DoxiaFilter.PAGE_CACHE_SIZE_KEY, 1024L * 1024L);
+        attributes.put(DoxiaFilter.PRERENDER_KEY, true);
+        DoxiaFilter filter = newFilter(attributes);
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (rendered.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // served from the cache
+            get(filter, "/faq.html", null);
+        } finally {
+            filter.destroy();
+        }
+
+        assertEquals(4, rendered.size());
+    }
+
+    @Test
+    public void testPagesAreStreamedWithoutValidatorsWhenCacheIsDisabled() throws Exception {
+        doAnswer(invocation -> {
+                    invocation.<Writer>getArgument(0).write("<p>index</p>");
+                    return null;
+                })
+                .when(siteRenderer)
+                .renderDocument(any(), any(), any());
+        addDocument("index", "markdown");
+        DoxiaFilter filter = newFilter();
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        HttpServletResponse response = newResponse(content);
+        filter.doFilter(newRequest("/index.html", null), response, mock(FilterChain.class));
+        response.getWriter().flush();
+
+        assertEquals("<p>index</p>", new String(content.toByteArray(), StandardCharsets.UTF_8));
+        verify(response, never()).getOutputStream();
+        verify(response, never()).setHeader(eq("ETag"), anyString());
+        verify(response, never()).setDateHeader(eq("Last-Modified"), anyLong());
+    }
+
+    @Test
+    public void testIfNoneMatchComparesEntityTags() {
+        assertTrue(DoxiaFilter.matches("\"1a-2b\"", "\"1a-2b\""));
+        assertTrue(DoxiaFilter.matches("\"00-01\", W/\"1a-2b\"", "\"1a-2b\""));
+        assertTrue(DoxiaFilter.matches(" * ", "\"1a-2b\""));
+        assertFalse(DoxiaFilter.matches("\"1a-2bc\"", "\"1a-2b\""));
+        assertFalse(DoxiaFilter.matches("\"x1a-2b\", \"1a\"", "\"1a-2b\""));
+    }
+
+    private static Menu menu(String... hrefs) {
+        Menu menu = new Menu();
+        for (String href : hrefs) {
+            MenuItem item = new MenuItem();
+            item.setHref(href);
+            menu.addItem(item);
+        }
+        return menu;
+    }
+
+    private void addDocument(String name, String parserId) {
+        documents.put(
+                name + ".html",
+                new DoxiaDocumentRenderer(new DocumentRenderingContext(
+                        new File("src/site/" + parserId).getAbsoluteFile(),
+                        "src/site/" + parserId,
+                        name + "." + parserId,
+                        parserId,
+                        parserId,
+                        true,
+                        null)));
+    }
+
+    private DoxiaFilter newFilter() throws Exception {
+        return newFilter(new HashMap<>());
+    }
+
+    private DoxiaFilter newFilter(Map<String, Object> attributes) throws Exception {
+        SiteRenderingContext context = new SiteRenderingContext();
+        context.setOutputEncoding("UTF-8");
+        context.setSiteModel(siteModel);
+        attributes.put(DoxiaFilter.SITE_RENDERER_KEY, siteRenderer);
+        DoxiaBean doxiaBean = new DoxiaBean(context, documents);
+        doxiaBean.setNotThreadSafeDocuments(notThreadSafeDocuments);
+        attributes.put(DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY, Collections.singletonMap("default", doxiaBean));
+        attributes.put(DoxiaFilter.LOCALES_LIST_KEY, Collections.singletonList(SiteTool.DEFAULT_LOCALE));
+        ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getAttribute(anyString()))
+                .thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        FilterConfig filterConfig = mock(FilterConfig.class);
+        when(filterConfig.getServletContext()).thenReturn(servletContext);
+
+        DoxiaFilter filter = new DoxiaFilter();
+        filter.init(filterConfig);
+        return filter;
+    }
+
+    private static String get(DoxiaFilter filter, String path, CountDownLatch requested) throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        HttpServletResponse response = newResponse(content);
+        filter.doFilter(newRequest(path, requested), response, mock(FilterChain.class));
+        response.getWriter().flush();
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static HttpServletRequest newRequest(String path, CountDownLatch requested) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getServletPath()).thenAnswer(invocation -> {
+            if (requested != null) {
+                requested.countDown();
+            }
+            return path;
+        });
+        when(request.getDateHeader(any())).thenReturn(-1L);
+        return request;
+    }
+
+    private static HttpServletResponse newResponse(ByteArrayOutputStream content) throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                content.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {}
+        });
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(content, StandardCharsets.UTF_8));
+        when(response.getWriter()).thenReturn(writer);
+        return response;
+    }
+}
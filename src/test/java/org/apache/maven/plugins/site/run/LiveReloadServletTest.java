@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LiveReloadServletTest {
+
+    @Test
+    public void testChangedPagesArePushed() throws Exception {
+        LiveReloadServlet servlet = new LiveReloadServlet();
+        ServletHolder holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.addServlet(holder, LiveReloadServlet.PATH);
+        Server server = new Server(0);
+        server.setHandler(handler);
+        server.start();
+        try {
+            int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://localhost:" + port + LiveReloadServlet.PATH).openConnection();
+            connection.setReadTimeout(10_000);
+            assertEquals("text/event-stream;charset=utf-8", connection.getContentType());
+            assertNull(connection.getHeaderField("Access-Control-Allow-Origin"));
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                assertEquals(": connected", reader.readLine());
+                assertEquals("", reader.readLine());
+                assertEquals(1, servlet.getClientCount());
+
+                servlet.notify(Arrays.asList("index.html", "fr/faq.html"));
+                assertEquals("data: index.html", reader.readLine());
+                assertEquals("data: fr/faq.html", reader.readLine());
+                assertEquals("", reader.readLine());
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testSnippetIsInjectedAtEndOfBody() {
+        String snippet = LiveReloadServlet.getSnippet(LiveReloadServlet.PATH);
+        assertTrue(snippet.contains("new EventSource('/.site-live-reload')"));
+        // the whole site-relative path is compared, so that index.html doesn't reload fr/index.html
+        assertTrue(snippet.contains("if(p==d[i])"));
+        assertEquals(
+                "<html><body><p>index</p><script/></BODY></html>",
+                LiveReloadServlet.inject("<html><body><p>index</p></BODY></html>", "<script/>"));
+        assertEquals("<p>index</p><script/>", LiveReloadServlet.inject("<p>index</p>", "<script/>"));
+    }
+}
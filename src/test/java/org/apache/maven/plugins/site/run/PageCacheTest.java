@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PageCacheTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    public void testLeastRecentlyUsedPagesAreEvicted() {
+        PageCache cache = new PageCache(250);
+        cache.put("/a.html", page(new byte[100]));
+        cache.put("/b.html", page(new byte[100]));
+        assertNotNull(cache.get("/a.html"));
+        cache.put("/c.html", page(new byte[100]));
+
+        assertNull(cache.get("/b.html"));
+        assertNotNull(cache.get("/a.html"));
+        assertNotNull(cache.get("/c.html"));
+        assertEquals(200, cache.getBytes());
+
+        // a page larger than the cache is not cached
+        cache.put("/d.html", page(new byte[300]));
+        assertNull(cache.get("/d.html"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testPutIfRoomNeverEvicts() {
+        PageCache cache = new PageCache(250);
+        assertTrue(cache.putIfRoom("/a.html", page(new byte[100])));
+        assertTrue(cache.putIfRoom("/b.html", page(new byte[100])));
+        assertFalse(cache.putIfRoom("/c.html", page(new byte[100])));
+        // replacing a page only needs room for the difference
+        assertTrue(cache.putIfRoom("/a.html", page(new byte[150])));
+
+        assertNotNull(cache.get("/a.html"));
+        assertNotNull(cache.get("/b.html"));
+        assertNull(cache.get("/c.html"));
+        assertEquals(250, cache.getBytes());
+    }
+
+    @Test
+    public void testModifiedSourceInvalidatesPage() throws IOException {
+        File source = new File(basedir, "index.md");
+        Files.write(source.toPath(), "# Index".getBytes(StandardCharsets.UTF_8));
+        PageCache cache = new PageCache(1024);
+        PageCache.Page page = new PageCache.Page(
+                "<h1>Index</h1>".getBytes(StandardCharsets.UTF_8),
+                "text/html",
+                System.currentTimeMillis(),
+                Collections.singletonList(source));
+        cache.put("/index.html", page);
+        assertEquals(page, cache.get("/index.html"));
+
+        Files.write(source.toPath(), "# Welcome".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get("/index.html"));
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testEtagDependsOnContent() {
+        assertEquals(page(new byte[] {1}).getEtag(), page(new byte[] {1}).getEtag());
+        assertNotEquals(page(new byte[] {1}).getEtag(), page(new byte[] {2}).getEtag());
+        assertEquals(1000, page(new byte[0]).getLastModified());
+    }
+
+    private static PageCache.Page page(byte[] content) {
+        return new PageCache.Page(content, null, 1999, Collections.emptyList());
+    }
+}